@@ -0,0 +1,99 @@
+import java.io.PrintStream;
+
+/**
+ * Collects printed lines in memory and writes them to a stream in large
+ * chunks, so a command that prints thousands of lines costs a few writes
+ * instead of a locked, flushed write per line.
+ *
+ * The held back output is written out at the end of a command once it
+ * reaches the chunk size, so chunks are cut between commands. A single
+ * command that prints more than eight chunks, such as a dump of a large
+ * list, is written out as it goes so that its output never has to fit in
+ * memory at once. Nothing else should print to the same stream until
+ * flush is called, or the two would come out of order.
+ *
+ * @author kinjalpandey, architg03
+ * @version 02/28/2024
+ */
+public class BufferedOutputSink implements OutputSink {
+
+    // characters held back before the end of a command writes them out
+    private static final int CHUNK = 1 << 16;
+
+    private PrintStream target;
+    private int chunk;
+    private StringBuilder buffer;
+    private String newLine = System.lineSeparator();
+
+    /**
+     * Creates a sink that writes to the given stream in chunks of the
+     * default size.
+     *
+     * @param target
+     *            the stream to write to
+     */
+    public BufferedOutputSink(PrintStream target) {
+        this(target, CHUNK);
+    }
+
+
+    /**
+     * Creates a sink that writes to the given stream in chunks of the given
+     * size.
+     *
+     * @param target
+     *            the stream to write to
+     * @param chunk
+     *            the number of characters to hold back before writing them
+     *            out at the end of a command
+     */
+    public BufferedOutputSink(PrintStream target, int chunk) {
+        this.target = target;
+        this.chunk = chunk;
+        buffer = new StringBuilder(chunk + chunk / 4);
+    }
+
+
+    @Override
+    public void print(Object text) {
+        buffer.append(text);
+        if (buffer.length() >= 8L * chunk) {
+            drain();
+        }
+    }
+
+
+    @Override
+    public void println(Object line) {
+        buffer.append(line).append(newLine);
+        if (buffer.length() >= 8L * chunk) {
+            drain();
+        }
+    }
+
+
+    @Override
+    public void endCommand() {
+        if (buffer.length() >= chunk) {
+            drain();
+        }
+    }
+
+
+    @Override
+    public void flush() {
+        drain();
+        target.flush();
+    }
+
+
+    /**
+     * Writes the held back output to the stream.
+     */
+    private void drain() {
+        if (buffer.length() > 0) {
+            target.append(buffer);
+            buffer.setLength(0);
+        }
+    }
+}
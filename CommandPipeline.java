@@ -0,0 +1,544 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.PrintStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Runs a command file as four stages on their own threads, so reading the
+ * file, parsing lines, running commands and writing results overlap
+ * instead of taking turns. A reader thread copies lines out of the mapped
+ * file into batches, a parser thread turns each batch of lines into parsed
+ * commands, the thread that calls run executes them one at a time in file
+ * order, and a writer thread prints the results.
+ *
+ * The stages are joined by bounded queues. Batches of lines and commands
+ * go round a fixed pool, so the reader can only get a few batches ahead
+ * of the executor and the batches are reused rather than made per line.
+ * Output is collected in chunks by the pipeline's sink and handed to the
+ * writer at the end of a command, so the writer never cuts a command's
+ * output in two unless it is very large.
+ *
+ * Only the executor touches the database, so the processors need no
+ * locking: a processor's parse method runs on the parser thread and its
+ * execute method on the executor.
+ *
+ * @author kinjalpandey, architg03
+ * @version 02/28/2024
+ */
+public class CommandPipeline implements AutoCloseable {
+
+    /**
+     * A command processor split into the two halves the pipeline runs on
+     * different threads.
+     */
+    public interface Handler {
+
+        /**
+         * Parses a line without running it. Called on the parser thread
+         * only.
+         *
+         * @param line
+         *            the line, which is reused once this returns
+         * @param parsed
+         *            filled in with the command
+         */
+        void parse(CharSequence line, ParsedCommand parsed);
+
+
+        /**
+         * Runs a parsed command. Called on the executor thread only, in
+         * file order.
+         *
+         * @param parsed
+         *            a command filled in by parse
+         */
+        void execute(ParsedCommand parsed);
+    }
+
+    // lines in a batch
+    private static final int LINES = 1024;
+    // batches in flight between the reader and the executor
+    private static final int BATCHES = 8;
+    // characters of output collected before the end of a command hands
+    // them to the writer
+    private static final int CHUNK = 1 << 16;
+    // chunks of output waiting for the writer
+    private static final int CHUNKS = 8;
+
+    // tell the writer to flush and to stop; compared by identity
+    private static final String FLUSH = new String("flush");
+    private static final String END = new String("end");
+
+    private PrintStream target;
+    private BlockingQueue<String> chunks = new ArrayBlockingQueue<>(CHUNKS);
+    private Semaphore flushed = new Semaphore(0);
+    private Thread writer;
+    private Sink sink = new Sink();
+
+    /**
+     * Creates a pipeline that prints to the given stream and starts its
+     * writer thread.
+     *
+     * @param target
+     *            where results are printed
+     */
+    public CommandPipeline(PrintStream target) {
+        this.target = target;
+        writer = new Thread(this::write, "command writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+
+    /**
+     * @return the sink whose output the writer prints; the processors run
+     *         by the pipeline must print through it, and only from the
+     *         executor
+     */
+    public OutputSink sink() {
+        return sink;
+    }
+
+
+    /**
+     * Reads, parses and runs every non-blank line of a file, trimmed, the
+     * way handing each one to a processor would. Returns once the last
+     * command has run; its output may still be on its way to the stream
+     * until the sink is flushed or the pipeline closed.
+     *
+     * @param file
+     *            the command file
+     * @param handler
+     *            parses and runs the commands
+     * @throws IOException
+     *             if the file cannot be read; the commands before the
+     *             point where reading failed have run
+     */
+    public void run(File file, Handler handler) throws IOException {
+        BlockingQueue<Batch> free = new ArrayBlockingQueue<>(BATCHES);
+        BlockingQueue<Batch> lines = new ArrayBlockingQueue<>(BATCHES);
+        BlockingQueue<Batch> commands = new ArrayBlockingQueue<>(BATCHES);
+        for (int i = 0; i < BATCHES; i++) {
+            free.add(new Batch());
+        }
+        Thread reader = new Thread(() -> read(file, free, lines),
+            "command reader");
+        Thread parser = new Thread(() -> parse(handler, lines, commands),
+            "command parser");
+        reader.setDaemon(true);
+        parser.setDaemon(true);
+        reader.start();
+        parser.start();
+        try {
+            while (true) {
+                Batch batch = commands.take();
+                for (int i = 0; i < batch.count; i++) {
+                    handler.execute(batch.commands[i]);
+                }
+                if (batch.end) {
+                    rethrow(batch.error);
+                    return;
+                }
+                free.put(batch);
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted running " + file);
+        }
+        finally {
+            // stops the other stages if a command failed
+            reader.interrupt();
+            parser.interrupt();
+        }
+    }
+
+
+    /**
+     * Prints everything still held back and stops the writer thread.
+     */
+    @Override
+    public void close() {
+        if (writer == null) {
+            return;
+        }
+        sink.handOff();
+        put(chunks, END);
+        try {
+            writer.join();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writer = null;
+    }
+
+
+    /**
+     * The reader stage: copies the lines of the file into batches.
+     *
+     * @param file
+     *            the command file
+     * @param free
+     *            the empty batches
+     * @param lines
+     *            where full batches go
+     */
+    private static void read(
+        File file,
+        BlockingQueue<Batch> free,
+        BlockingQueue<Batch> lines) {
+        try {
+            Batch[] current = { take(free).clear() };
+            try {
+                MappedLineReader.forEachLine(file, line -> {
+                    Batch batch = current[0];
+                    batch.add(line);
+                    if (batch.count == LINES) {
+                        put(lines, batch);
+                        current[0] = take(free).clear();
+                    }
+                });
+            }
+            catch (IOException | RuntimeException | Error e) {
+                if (e instanceof CancellationException) {
+                    throw (CancellationException)e;
+                }
+                current[0].error = e;
+            }
+            current[0].end = true;
+            put(lines, current[0]);
+        }
+        catch (CancellationException e) {
+            // the executor has stopped
+        }
+    }
+
+
+    /**
+     * The parser stage: parses each batch of lines into commands.
+     *
+     * @param handler
+     *            parses the lines
+     * @param lines
+     *            the batches of lines
+     * @param commands
+     *            where parsed batches go
+     */
+    private static void parse(
+        Handler handler,
+        BlockingQueue<Batch> lines,
+        BlockingQueue<Batch> commands) {
+        try {
+            while (true) {
+                Batch batch = take(lines);
+                int i = 0;
+                try {
+                    for (; i < batch.count; i++) {
+                        handler.parse(batch.line(i), batch.commands[i]);
+                    }
+                }
+                catch (RuntimeException | Error e) {
+                    // the lines before this one still run
+                    batch.count = i;
+                    batch.error = e;
+                    batch.end = true;
+                }
+                // read before the hand-off, since once the executor has
+                // the batch it can go back round and be refilled
+                boolean end = batch.end;
+                put(commands, batch);
+                if (end) {
+                    return;
+                }
+            }
+        }
+        catch (CancellationException e) {
+            // the executor has stopped
+        }
+    }
+
+
+    /**
+     * The writer stage: prints chunks of output until told to stop.
+     */
+    private void write() {
+        while (true) {
+            String chunk;
+            try {
+                chunk = chunks.take();
+            }
+            catch (InterruptedException e) {
+                return;
+            }
+            if (chunk == END) {
+                target.flush();
+                return;
+            }
+            if (chunk == FLUSH) {
+                target.flush();
+                flushed.release();
+            }
+            else {
+                target.print(chunk);
+            }
+        }
+    }
+
+
+    /**
+     * Throws a failure handed down from an earlier stage.
+     *
+     * @param error
+     *            the failure, or null
+     * @throws IOException
+     *             if the failure was one
+     */
+    private static void rethrow(Throwable error) throws IOException {
+        if (error instanceof IOException) {
+            throw (IOException)error;
+        }
+        if (error instanceof RuntimeException) {
+            throw (RuntimeException)error;
+        }
+        if (error instanceof Error) {
+            throw (Error)error;
+        }
+    }
+
+
+    /**
+     * Takes from a queue, turning an interrupt into a CancellationException
+     * so it can pass through the line handler.
+     *
+     * @param <T>
+     *            the type of item
+     * @param queue
+     *            the queue
+     * @return the item taken
+     */
+    private static <T> T take(BlockingQueue<T> queue) {
+        try {
+            return queue.take();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Pipeline stopped");
+        }
+    }
+
+
+    /**
+     * Puts on a queue, turning an interrupt into a CancellationException.
+     *
+     * @param <T>
+     *            the type of item
+     * @param queue
+     *            the queue
+     * @param item
+     *            the item to put
+     */
+    private static <T> void put(BlockingQueue<T> queue, T item) {
+        try {
+            queue.put(item);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Pipeline stopped");
+        }
+    }
+
+
+    /**
+     * Lines copied out of the file and the commands parsed from them.
+     */
+    private static class Batch {
+        // the characters of every line, one after another
+        private char[] chars = new char[LINES * 32];
+        // where each line ends in chars
+        private int[] ends = new int[LINES];
+        private ParsedCommand[] commands = new ParsedCommand[LINES];
+        private int count;
+        // true for the last batch of a run
+        private boolean end;
+        // why the run stopped early, if it did
+        private Throwable error;
+        private Line view = new Line();
+
+        /**
+         * Creates an empty batch.
+         */
+        private Batch() {
+            for (int i = 0; i < LINES; i++) {
+                commands[i] = new ParsedCommand();
+            }
+        }
+
+
+        /**
+         * @return this batch, emptied
+         */
+        private Batch clear() {
+            count = 0;
+            end = false;
+            error = null;
+            return this;
+        }
+
+
+        /**
+         * Copies a line into the batch.
+         *
+         * @param line
+         *            the line
+         */
+        private void add(CharSequence line) {
+            int start = count == 0 ? 0 : ends[count - 1];
+            int length = line.length();
+            if (start + length > chars.length) {
+                char[] grown = new char[Math.max(2 * chars.length, start
+                    + length)];
+                System.arraycopy(chars, 0, grown, 0, start);
+                chars = grown;
+            }
+            for (int i = 0; i < length; i++) {
+                chars[start + i] = line.charAt(i);
+            }
+            ends[count++] = start + length;
+        }
+
+
+        /**
+         * @param index
+         *            the line
+         * @return a view of the line, reused for the next call
+         */
+        private CharSequence line(int index) {
+            view.set(chars, index == 0 ? 0 : ends[index - 1], ends[index]);
+            return view;
+        }
+    }
+
+
+    /**
+     * A view of a line in a batch.
+     */
+    private static class Line implements CharSequence {
+        private char[] chars;
+        private int start;
+        private int end;
+
+        /**
+         * Points the view at a line.
+         *
+         * @param array
+         *            the characters of the batch
+         * @param from
+         *            the first character of the line
+         * @param to
+         *            one past the last character
+         */
+        private void set(char[] array, int from, int to) {
+            chars = array;
+            start = from;
+            end = to;
+        }
+
+
+        @Override
+        public int length() {
+            return end - start;
+        }
+
+
+        @Override
+        public char charAt(int index) {
+            if (index < 0 || index >= end - start) {
+                throw new IndexOutOfBoundsException("Index: " + index);
+            }
+            return chars[start + index];
+        }
+
+
+        @Override
+        public CharSequence subSequence(int from, int to) {
+            if (from < 0 || from > to || to > end - start) {
+                throw new IndexOutOfBoundsException("Range: " + from + " to "
+                    + to);
+            }
+            return new String(chars, start + from, to - from);
+        }
+
+
+        @Override
+        public String toString() {
+            return new String(chars, start, end - start);
+        }
+    }
+
+
+    /**
+     * Collects output in chunks and hands them to the writer at the end of
+     * a command.
+     */
+    private class Sink implements OutputSink {
+        private StringBuilder buffer = new StringBuilder(CHUNK + CHUNK / 4);
+        private String newLine = System.lineSeparator();
+
+        @Override
+        public void print(Object text) {
+            buffer.append(text);
+            if (buffer.length() >= 8L * CHUNK) {
+                handOff();
+            }
+        }
+
+
+        @Override
+        public void println(Object line) {
+            buffer.append(line).append(newLine);
+            if (buffer.length() >= 8L * CHUNK) {
+                handOff();
+            }
+        }
+
+
+        @Override
+        public void endCommand() {
+            if (buffer.length() >= CHUNK) {
+                handOff();
+            }
+        }
+
+
+        /**
+         * Hands everything held back to the writer and waits until it has
+         * been printed.
+         */
+        @Override
+        public void flush() {
+            if (writer == null) {
+                // closed; everything has been printed
+                return;
+            }
+            handOff();
+            put(chunks, FLUSH);
+            flushed.acquireUninterruptibly();
+        }
+
+
+        /**
+         * Hands the collected output to the writer.
+         */
+        private void handOff() {
+            if (buffer.length() > 0) {
+                put(chunks, buffer.toString());
+                buffer.setLength(0);
+            }
+        }
+    }
+}
@@ -0,0 +1,265 @@
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import student.TestCase;
+
+/**
+ * Tests the CommandPipeline class against running the same command file
+ * through a processor one line at a time.
+ *
+ * @author kinjalpandey, architg03
+ * @version 02/28/2024
+ */
+public class CommandPipelineTest extends TestCase {
+
+    private File file;
+    private ByteArrayOutputStream bytes;
+    private PrintStream stream;
+
+    /**
+     * Sets up the test cases
+     *
+     * @throws IOException
+     *             if the temporary file cannot be made
+     */
+    public void setUp() throws IOException {
+        file = File.createTempFile("commands", ".txt");
+        bytes = new ByteArrayOutputStream();
+        stream = new PrintStream(bytes, true);
+    }
+
+
+    /**
+     * Clears for new test
+     */
+    public void tearDown() {
+        file.delete();
+    }
+
+
+    /**
+     * Testing run()
+     * a file of many batches of rectangle commands, including bad ones,
+     * prints the same as running it line by line
+     *
+     * @throws IOException
+     *             if the command file cannot be used
+     */
+    public void testRectangles() throws IOException {
+        Random rng = new Random(11);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 6000; i++) {
+            int name = rng.nextInt(500);
+            switch (rng.nextInt(8)) {
+                case 0:
+                    text.append("search r" + name);
+                    break;
+                case 1:
+                    text.append("remove r" + name);
+                    break;
+                case 2:
+                    text.append("regionsearch " + rng.nextInt(1000) + " "
+                        + rng.nextInt(1000) + " 40 40");
+                    break;
+                case 3:
+                    text.append("insert r" + name + " 1 x 2 3");
+                    break;
+                case 4:
+                    text.append("bogus   line");
+                    break;
+                default:
+                    text.append("insert r" + name + " " + rng.nextInt(1000)
+                        + " " + rng.nextInt(1000) + " " + (1 + rng.nextInt(
+                            20)) + " " + (1 + rng.nextInt(20)));
+            }
+            text.append(i % 5 == 0 ? "\r\n" : "\n");
+        }
+        Files.write(file.toPath(), text.toString().getBytes(
+            StandardCharsets.US_ASCII));
+
+        MemoryOutputSink serial = new MemoryOutputSink();
+        CommandProcessor one = new CommandProcessor(serial);
+        one.startBulkLoad();
+        MappedLineReader.forEachLine(file, one::processor);
+        one.endBulkLoad();
+
+        try (CommandPipeline pipeline = new CommandPipeline(stream)) {
+            CommandProcessor piped = new CommandProcessor(pipeline.sink());
+            piped.startBulkLoad();
+            pipeline.run(file, piped);
+            piped.endBulkLoad();
+        }
+        assertEquals(serial.getHistory(), normalize(bytes.toString()));
+        assertTrue(serial.getHistory().contains("Unrecognized command.\n"));
+    }
+
+
+    /**
+     * Testing run() and flush()
+     * point commands come out the same, and flushing the sink prints
+     * everything before close
+     *
+     * @throws IOException
+     *             if the command file cannot be used
+     */
+    public void testPoints() throws IOException {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 3000; i++) {
+            text.append("insert p" + i + " " + (i % 700) + " " + (i % 300)
+                + "\n");
+        }
+        text.append("duplicates\nsearch p7\nREMOVE p7\nregionsearch 0 0 50 50"
+            + "\nsearch p7\nremove 1 a\nfind p1\n");
+        Files.write(file.toPath(), text.toString().getBytes(
+            StandardCharsets.US_ASCII));
+
+        MemoryOutputSink serial = new MemoryOutputSink();
+        PointsCommandProcessor one = new PointsCommandProcessor(serial);
+        one.startBulkLoad();
+        MappedLineReader.forEachLine(file, one::processCommand);
+        one.endBulkLoad();
+
+        try (CommandPipeline pipeline = new CommandPipeline(stream)) {
+            PointsCommandProcessor piped = new PointsCommandProcessor(
+                pipeline.sink());
+            piped.startBulkLoad();
+            pipeline.run(file, piped);
+            piped.endBulkLoad();
+            pipeline.sink().flush();
+            assertEquals(serial.getHistory(), normalize(bytes.toString()));
+        }
+        assertTrue(serial.getHistory().contains("Unrecognized command: "
+            + "find p1\n"));
+    }
+
+
+    /**
+     * Testing run() and close()
+     * a missing file and a failing command both come out of run, and the
+     * output before a failure is still printed
+     *
+     * @throws IOException
+     *             if the command file cannot be used
+     */
+    public void testFailures() throws IOException {
+        Exception thrown = null;
+        try (CommandPipeline pipeline = new CommandPipeline(stream)) {
+            pipeline.run(new File(file.getPath() + ".missing"),
+                new CommandProcessor(pipeline.sink()));
+        }
+        catch (FileNotFoundException e) {
+            thrown = e;
+        }
+        assertNotNull(thrown);
+        assertEquals(0, bytes.size());
+
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            text.append(i == 4000 ? "explode\n" : "line " + i + "\n");
+        }
+        Files.write(file.toPath(), text.toString().getBytes(
+            StandardCharsets.US_ASCII));
+        thrown = null;
+        try (CommandPipeline pipeline = new CommandPipeline(stream)) {
+            OutputSink out = pipeline.sink();
+            pipeline.run(file, new CommandPipeline.Handler() {
+                @Override
+                public void parse(CharSequence line, ParsedCommand parsed) {
+                    parsed.reject(line.toString());
+                }
+
+
+                @Override
+                public void execute(ParsedCommand parsed) {
+                    if (parsed.message.equals("explode")) {
+                        throw new IllegalStateException("exploded");
+                    }
+                    out.println(parsed.message);
+                    out.endCommand();
+                }
+            });
+        }
+        catch (IllegalStateException e) {
+            thrown = e;
+        }
+        assertNotNull(thrown);
+        String[] printed = normalize(bytes.toString()).split("\n");
+        assertEquals(4000, printed.length);
+        assertEquals("line 3999", printed[3999]);
+    }
+
+
+    /**
+     * Testing run()
+     * a file longer than every batch in the pool together sends batches
+     * back round to be refilled, and each run still prints every line;
+     * the last batch holds one line, so the reader ends the file on a
+     * recycled batch as soon as it gets one back
+     *
+     * @throws Exception
+     *             if the command file cannot be used, or a run hangs
+     */
+    public void testRecycledBatches() throws Exception {
+        int lines = 9 * 1024 + 1;
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < lines; i++) {
+            text.append("line " + i + "\n");
+        }
+        String expected = text.toString();
+        Files.write(file.toPath(), expected.getBytes(
+            StandardCharsets.US_ASCII));
+        ExecutorService runner = Executors.newSingleThreadExecutor();
+        try {
+            for (int run = 0; run < 60; run++) {
+                bytes.reset();
+                Future<?> done = runner.submit(() -> {
+                    try (CommandPipeline pipeline = new CommandPipeline(
+                        stream)) {
+                        OutputSink out = pipeline.sink();
+                        pipeline.run(file, new CommandPipeline.Handler() {
+                            @Override
+                            public void parse(
+                                CharSequence line,
+                                ParsedCommand parsed) {
+                                parsed.reject(line.toString());
+                            }
+
+
+                            @Override
+                            public void execute(ParsedCommand parsed) {
+                                out.println(parsed.message);
+                                out.endCommand();
+                            }
+                        });
+                    }
+                    return null;
+                });
+                // a run that loses its last batch never returns
+                done.get(30, TimeUnit.SECONDS);
+                assertEquals(expected, normalize(bytes.toString()));
+            }
+        }
+        finally {
+            runner.shutdownNow();
+        }
+    }
+
+
+    /**
+     * @param text
+     *            printed text
+     * @return the text with every line ending as \n
+     */
+    private String normalize(String text) {
+        return text.replace(System.lineSeparator(), "\n");
+    }
+}
@@ -1,3 +1,4 @@
+import java.util.ArrayList;
 // import java.util.regex.Pattern;
 
 /**
@@ -8,21 +9,48 @@
  * 
  * @version 2024-01-22
  */
-public class CommandProcessor {
+public class CommandProcessor implements CommandPipeline.Handler {
 
     // the database object to manipulate the
     // commands that the command processor
     // feeds to it
     private Database data;
 
+    // where the database and the error messages print
+    private OutputSink out;
+
+    // splits each line; reused so parsing a command allocates nothing
+    private CommandTokenizer tokens = new CommandTokenizer();
+
+    // the command processor parses each line into before running it
+    private ParsedCommand command = new ParsedCommand();
+
+    // insert commands from the start of a file, held back while bulk
+    // loading so the database can load them together; null otherwise
+    private ArrayList<KVPair<String, Rectangle>> pendingInserts;
+
     /**
      * The constructor for the command processor requires a database instance to
      * exist, so the only constructor takes a database class object to feed
-     * commands to.
+     * commands to. Everything is printed to the console.
      * 
      */
     public CommandProcessor() {
-        data = new Database();
+        this(OutputSink.CONSOLE);
+    }
+
+
+    /**
+     * Creates a command processor whose database and messages print to the
+     * given sink. The end of every command is marked on the sink, so a
+     * buffered sink only has to write out between commands.
+     * 
+     * @param out
+     *            where to print
+     */
+    public CommandProcessor(OutputSink out) {
+        this.out = out;
+        data = new Database(out);
     }
 
 
@@ -38,112 +66,185 @@ public class CommandProcessor {
      * methods called will themselves write to the console, this method does
      * not, only calling methods that do.
      * 
+     * The line is split in place rather than into Strings, so it may be a
+     * reused view such as the ones the MappedLineReader hands out; it is
+     * not kept after this method returns.
+     * 
+     * @param line
+     *            a single line from the text file
+     */
+    public void processor(CharSequence line) {
+        parse(line, command);
+        execute(command);
+    }
+
+
+    /**
+     * Parses a line into a command without running it, converting the
+     * string integers into their int equivalents. A line that is not a
+     * valid command becomes one that prints the message processor would
+     * print for it. This only touches the tokenizer, so it may run on a
+     * different thread from execute, as long as only one thread parses.
+     * 
      * @param line
      *            a single line from the text file
+     * @param parsed
+     *            filled in with the command
      */
-    public void processor(String line) {
-        // converts the string of the line into an
-        // array of its space (" ") delimited elements
-        String[] arr = line.split("\\s{1,}");
-        String command = arr[0]; // the command will be the first of these
-                                 // elements
-        // calls the insert function and passes the correct
-        // parameters by converting the string integers into
-        // their Integer equivalent, trimming the whitespace
-        if (command.equals("insert")) {
-            if (arr.length == 6) { // Command plus five parameters for insert
+    public void parse(CharSequence line, ParsedCommand parsed) {
+        // finds the space (" ") delimited elements of the line
+        tokens.reset(line);
+        // the command will be the first of these elements
+        if (tokens.is(0, "insert")) {
+            // Command plus five parameters for insert
+            if (tokens.count() == 6) {
                 try {
-                    String name = arr[1];
-                    int x = Integer.parseInt(arr[2]);
-                    int y = Integer.parseInt(arr[3]);
-                    int w = Integer.parseInt(arr[4]);
-                    int h = Integer.parseInt(arr[5]);
-                    Rectangle rect = new Rectangle(x, y, w, h);
-                    KVPair<String, Rectangle> pair = new KVPair<>(name, rect);
-                    data.insert(pair);
+                    parsed.set(ParsedCommand.Kind.INSERT, tokens.text(1),
+                        tokens.intAt(2), tokens.intAt(3), tokens.intAt(4),
+                        tokens.intAt(5));
                 }
                 catch (NumberFormatException e) {
-                    System.out.println(
-                        "Invalid number format for insert command.");
+                    parsed.reject("Invalid number format for insert command.");
                 }
             }
             else {
-                System.out.println("Invalid insert command.");
+                parsed.reject("Invalid insert command.");
             }
-
         }
-        // calls the remove function and passes the correct
-        // parameters by converting the string integers into
-        else if (command.equals("remove")) {
-            if (arr.length == 2) { // Remove by name
-                String name = arr[1];
-                data.remove(name);
+        else if (tokens.is(0, "remove")) {
+            if (tokens.count() == 2) { // Remove by name
+                parsed.set(ParsedCommand.Kind.REMOVE_NAME, tokens.text(1), 0,
+                    0, 0, 0);
             }
-            else if (arr.length == 5) { // Remove by coordinates
+            else if (tokens.count() == 5) { // Remove by coordinates
                 try {
-                    int x = Integer.parseInt(arr[1]);
-                    int y = Integer.parseInt(arr[2]);
-                    int w = Integer.parseInt(arr[3]);
-                    int h = Integer.parseInt(arr[4]);
-                    data.remove(x, y, w, h);
+                    parsed.set(ParsedCommand.Kind.REMOVE_AT, null, tokens
+                        .intAt(1), tokens.intAt(2), tokens.intAt(3), tokens
+                            .intAt(4));
                 }
                 catch (NumberFormatException e) {
-                    System.out.println(
-                        "Invalid number format for remove command.");
+                    parsed.reject("Invalid number format for remove command.");
                 }
             }
             else {
-                System.out.println("Invalid remove command.");
+                parsed.reject("Invalid remove command.");
             }
-
         }
-        else if (command.equals("regionsearch")) {
-            if (arr.length == 5) {
+        else if (tokens.is(0, "regionsearch")) {
+            if (tokens.count() == 5) {
                 try {
-                    int x = Integer.parseInt(arr[1]);
-                    int y = Integer.parseInt(arr[2]);
-                    int w = Integer.parseInt(arr[3]);
-                    int h = Integer.parseInt(arr[4]);
-                    data.regionsearch(x, y, w, h);
+                    parsed.set(ParsedCommand.Kind.REGIONSEARCH, null, tokens
+                        .intAt(1), tokens.intAt(2), tokens.intAt(3), tokens
+                            .intAt(4));
                 }
                 catch (NumberFormatException e) {
-                    System.out.println(
+                    parsed.reject(
                         "Invalid number format for regionsearch command.");
                 }
             }
             else {
-                System.out.println("Invalid regionsearch command.");
+                parsed.reject("Invalid regionsearch command.");
             }
-
         }
-        else if (command.equals("intersections")) {
-            data.intersections();
-
+        else if (tokens.is(0, "intersections")) {
+            parsed.set(ParsedCommand.Kind.INTERSECTIONS);
         }
-        else if (command.equals("search")) {
-            if (arr.length == 2) {
-                String name = arr[1];
-                data.search(name);
+        else if (tokens.is(0, "search")) {
+            if (tokens.count() == 2) {
+                parsed.set(ParsedCommand.Kind.SEARCH, tokens.text(1), 0, 0, 0,
+                    0);
             }
             else {
-                System.out.println("Unrecognized command: " + line);
+                parsed.reject("Unrecognized command: " + line);
             }
-
         }
-        else if (command.equals("dump")) {
-            if (arr.length == 1) {
-                data.dump();
+        else if (tokens.is(0, "dump")) {
+            if (tokens.count() == 1) {
+                parsed.set(ParsedCommand.Kind.DUMP);
             }
             else {
-                System.out.println("Invalid command.");
+                parsed.reject("Invalid command.");
             }
-
         }
         else {
             // the first white space delimited string in the line is not
             // one of the commands which can manipulate the database,
             // a message will be written to the console
-            System.out.println("Unrecognized command.");
+            parsed.reject("Unrecognized command.");
+        }
+    }
+
+
+    /**
+     * Runs a parsed command against the database, or prints its message if
+     * the line was not a valid command, and then marks the end of the
+     * command on the sink.
+     * 
+     * @param parsed
+     *            a command filled in by parse
+     */
+    public void execute(ParsedCommand parsed) {
+        if (pendingInserts != null) {
+            if (parsed.kind == ParsedCommand.Kind.INSERT) {
+                pendingInserts.add(new KVPair<>(parsed.name, new Rectangle(
+                    parsed.x, parsed.y, parsed.w, parsed.h)));
+                return;
+            }
+            // the insert-only prefix is over
+            endBulkLoad();
+        }
+        switch (parsed.kind) {
+            case INSERT:
+                data.insert(new KVPair<>(parsed.name, new Rectangle(parsed.x,
+                    parsed.y, parsed.w, parsed.h)));
+                break;
+            case REMOVE_NAME:
+                data.remove(parsed.name);
+                break;
+            case REMOVE_AT:
+                data.remove(parsed.x, parsed.y, parsed.w, parsed.h);
+                break;
+            case REGIONSEARCH:
+                data.regionsearch(parsed.x, parsed.y, parsed.w, parsed.h);
+                break;
+            case INTERSECTIONS:
+                data.intersections();
+                break;
+            case SEARCH:
+                data.search(parsed.name);
+                break;
+            case DUMP:
+                data.dump();
+                break;
+            default:
+                out.println(parsed.message);
+                break;
+        }
+        out.endCommand();
+    }
+
+
+    /**
+     * Starts holding back well formed insert commands instead of running
+     * them one by one. They are handed to the database together at the first
+     * other command, or when endBulkLoad is called, so a file that starts
+     * with many inserts can be loaded in one pass.
+     */
+    public void startBulkLoad() {
+        pendingInserts = new ArrayList<>();
+    }
+
+
+    /**
+     * Inserts any held back insert commands and goes back to running every
+     * command as it arrives. This must be called after the last line of a
+     * file that was read in bulk load mode.
+     */
+    public void endBulkLoad() {
+        if (pendingInserts != null) {
+            data.insertAll(pendingInserts);
+            pendingInserts = null;
+            out.endCommand();
         }
     }
     
@@ -0,0 +1,279 @@
+import java.util.Arrays;
+
+/**
+ * Splits a command line into whitespace separated tokens without making a
+ * String for each one. A tokenizer only records where each token starts and
+ * ends in the line, so the command keyword can be matched and the numbers
+ * parsed straight from the characters; a token becomes a String only when
+ * it is asked for as text, which the processors do for names alone.
+ *
+ * The tokens are the ones line.split("\\s+") would give, including the empty
+ * first token of a line that starts with whitespace, and the numbers are
+ * parsed the way Integer.parseInt would parse the token, so switching a
+ * processor over changes none of its messages. One tokenizer is meant to be
+ * reset for every line, and the line must not change until it has been
+ * read.
+ *
+ * @author kinjalpandey, architg03
+ * @version 02/28/2024
+ */
+public class CommandTokenizer {
+
+    // no command has more tokens than this, but longer lines still work
+    private static final int TOKENS = 8;
+
+    private CharSequence line;
+    private int[] starts = new int[TOKENS];
+    private int[] ends = new int[TOKENS];
+    private int count;
+
+    /**
+     * Splits a line at runs of whitespace, as line.split("\\s+") would.
+     *
+     * @param text
+     *            the line
+     * @return this tokenizer
+     */
+    public CommandTokenizer reset(CharSequence text) {
+        return reset(text, 0, text.length());
+    }
+
+
+    /**
+     * Trims a line and then splits it at runs of whitespace, as
+     * line.trim().split("\\s+") would.
+     *
+     * @param text
+     *            the line
+     * @return this tokenizer
+     */
+    public CommandTokenizer resetTrimmed(CharSequence text) {
+        int from = 0;
+        int to = text.length();
+        while (from < to && text.charAt(from) <= ' ') {
+            from++;
+        }
+        while (to > from && text.charAt(to - 1) <= ' ') {
+            to--;
+        }
+        return reset(text, from, to);
+    }
+
+
+    /**
+     * Splits part of a line.
+     *
+     * @param text
+     *            the line
+     * @param from
+     *            the first character to split
+     * @param to
+     *            one past the last character to split
+     * @return this tokenizer
+     */
+    private CommandTokenizer reset(CharSequence text, int from, int to) {
+        line = text;
+        count = 0;
+        if (from == to) {
+            // split gives back the whole, empty, input
+            add(from, to);
+            return this;
+        }
+        int i = from;
+        if (isSpace(text.charAt(i))) {
+            // split keeps the empty token before leading whitespace
+            add(i, i);
+        }
+        while (i < to) {
+            while (i < to && isSpace(text.charAt(i))) {
+                i++;
+            }
+            int start = i;
+            while (i < to && !isSpace(text.charAt(i))) {
+                i++;
+            }
+            if (i > start) {
+                add(start, i);
+            }
+        }
+        if (count == 1 && starts[0] == ends[0]) {
+            // split drops trailing empty tokens, so a blank line has none
+            count = 0;
+        }
+        return this;
+    }
+
+
+    /**
+     * @return the number of tokens in the line
+     */
+    public int count() {
+        return count;
+    }
+
+
+    /**
+     * Checks whether a token is exactly the given word.
+     *
+     * @param index
+     *            the token
+     * @param word
+     *            the word
+     * @return true if there is such a token and it equals the word
+     */
+    public boolean is(int index, String word) {
+        if (index >= count || ends[index] - starts[index] != word.length()) {
+            return false;
+        }
+        for (int i = 0; i < word.length(); i++) {
+            if (line.charAt(starts[index] + i) != word.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    /**
+     * Checks whether a token is the given word in any case, as
+     * token.toLowerCase().equals(word) would for the ASCII command words.
+     *
+     * @param index
+     *            the token
+     * @param word
+     *            the word, in lower case ASCII letters
+     * @return true if there is such a token and it matches the word
+     */
+    public boolean isIgnoreCase(int index, String word) {
+        if (index >= count || ends[index] - starts[index] != word.length()) {
+            return false;
+        }
+        for (int i = 0; i < word.length(); i++) {
+            char c = line.charAt(starts[index] + i);
+            if (c >= 'A' && c <= 'Z') {
+                c += 'a' - 'A';
+            }
+            if (c != word.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    /**
+     * @param index
+     *            the token
+     * @return the token as a new String
+     * @throws IndexOutOfBoundsException
+     *             if there is no such token
+     */
+    public String text(int index) {
+        check(index);
+        return line.subSequence(starts[index], ends[index]).toString();
+    }
+
+
+    /**
+     * Parses a token as a decimal int, accepting and rejecting exactly what
+     * Integer.parseInt does.
+     *
+     * @param index
+     *            the token
+     * @return the number
+     * @throws NumberFormatException
+     *             if the token is not a number or does not fit in an int
+     * @throws IndexOutOfBoundsException
+     *             if there is no such token
+     */
+    public int intAt(int index) {
+        check(index);
+        int i = starts[index];
+        int end = ends[index];
+        if (i == end) {
+            throw invalid(index);
+        }
+        // sum negatively, since Integer.MIN_VALUE has no positive twin
+        boolean negative = false;
+        int limit = -Integer.MAX_VALUE;
+        char first = line.charAt(i);
+        if (first == '-' || first == '+') {
+            if (first == '-') {
+                negative = true;
+                limit = Integer.MIN_VALUE;
+            }
+            if (++i == end) {
+                throw invalid(index);
+            }
+        }
+        int multmin = limit / 10;
+        int result = 0;
+        while (i < end) {
+            int digit = Character.digit(line.charAt(i++), 10);
+            if (digit < 0 || result < multmin) {
+                throw invalid(index);
+            }
+            result *= 10;
+            if (result < limit + digit) {
+                throw invalid(index);
+            }
+            result -= digit;
+        }
+        return negative ? result : -result;
+    }
+
+
+    /**
+     * Records a token, growing the arrays if the line has many.
+     *
+     * @param start
+     *            where the token starts
+     * @param end
+     *            one past where it ends
+     */
+    private void add(int start, int end) {
+        if (count == starts.length) {
+            starts = Arrays.copyOf(starts, count * 2);
+            ends = Arrays.copyOf(ends, count * 2);
+        }
+        starts[count] = start;
+        ends[count] = end;
+        count++;
+    }
+
+
+    /**
+     * @param index
+     *            the token
+     * @throws IndexOutOfBoundsException
+     *             if there is no such token
+     */
+    private void check(int index) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("Token: " + index
+                + ", Count: " + count);
+        }
+    }
+
+
+    /**
+     * @param index
+     *            a token that is not a number
+     * @return the exception Integer.parseInt would throw for it
+     */
+    private NumberFormatException invalid(int index) {
+        return new NumberFormatException("For input string: \"" + text(index)
+            + "\"");
+    }
+
+
+    /**
+     * @param c
+     *            a character
+     * @return true if the regular expression \s matches it
+     */
+    private static boolean isSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B'
+            || c == '\f' || c == '\r';
+    }
+}
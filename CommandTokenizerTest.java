@@ -0,0 +1,142 @@
+import java.util.Random;
+import student.TestCase;
+
+/**
+ * Tests the CommandTokenizer class against the String.split and
+ * Integer.parseInt calls it replaces.
+ *
+ * @author kinjalpandey, architg03
+ * @version 02/28/2024
+ */
+public class CommandTokenizerTest extends TestCase {
+
+    private CommandTokenizer tokens;
+
+    /**
+     * Sets up the test cases
+     */
+    public void setUp() {
+        tokens = new CommandTokenizer();
+    }
+
+
+    /**
+     * Testing reset() and resetTrimmed()
+     * the tokens match split on hand picked and random lines
+     */
+    public void testSplit() {
+        String[] lines = { "insert a 1 2 3 4", "", " ", "   ", " dump",
+            "dump ", "  search\t\tname  ", "remove\r1\f2\u000B3 4",
+            "a\u0000b c", "one" };
+        for (String line : lines) {
+            assertSplit(line);
+        }
+        Random rng = new Random(7);
+        String alphabet = "ab1- \t\u0000";
+        for (int n = 0; n < 2000; n++) {
+            StringBuilder line = new StringBuilder();
+            int length = rng.nextInt(12);
+            for (int i = 0; i < length; i++) {
+                line.append(alphabet.charAt(rng.nextInt(alphabet.length())));
+            }
+            assertSplit(line.toString());
+        }
+    }
+
+
+    /**
+     * Testing intAt()
+     * accepts and rejects the same tokens as Integer.parseInt
+     */
+    public void testIntAt() {
+        String[] numbers = { "0", "-0", "+7", "1024", "-1025", "007",
+            "2147483647", "-2147483648", "2147483648", "-2147483649",
+            "99999999999", "-", "+", "1a", "a1", "--1", "1-", "\u0663\u0664",
+            "1.5", "0x10" };
+        for (String number : numbers) {
+            tokens.reset("x " + number);
+            Integer expected;
+            try {
+                expected = Integer.parseInt(number);
+            }
+            catch (NumberFormatException e) {
+                expected = null;
+            }
+            try {
+                int actual = tokens.intAt(1);
+                assertNotNull(number, expected);
+                assertEquals(number, expected.intValue(), actual);
+            }
+            catch (NumberFormatException e) {
+                assertNull(number, expected);
+                assertTrue(e.getMessage().contains(number));
+            }
+        }
+    }
+
+
+    /**
+     * Testing is(), isIgnoreCase() and text()
+     */
+    public void testWords() {
+        tokens.resetTrimmed("  InSeRt name 1 2  ");
+        assertEquals(4, tokens.count());
+        assertFalse(tokens.is(0, "insert"));
+        assertTrue(tokens.isIgnoreCase(0, "insert"));
+        assertFalse(tokens.isIgnoreCase(0, "inser"));
+        assertFalse(tokens.isIgnoreCase(4, "insert"));
+        assertEquals("name", tokens.text(1));
+        assertEquals(2, tokens.intAt(3));
+
+        // a line with more tokens than the arrays start with, then a
+        // shorter one that must not see the old tokens
+        tokens.reset("a b c d e f g h i j k l");
+        assertEquals(12, tokens.count());
+        assertEquals("l", tokens.text(11));
+        tokens.reset("dump");
+        assertEquals(1, tokens.count());
+        assertTrue(tokens.is(0, "dump"));
+        assertFalse(tokens.is(1, "b"));
+        Exception thrown = null;
+        try {
+            tokens.text(1);
+        }
+        catch (IndexOutOfBoundsException e) {
+            thrown = e;
+        }
+        assertNotNull(thrown);
+    }
+
+
+    /**
+     * Checks the tokens of a line against split, both as is and trimmed.
+     *
+     * @param line
+     *            the line
+     */
+    private void assertSplit(String line) {
+        assertTokens(line, line.split("\\s+"), tokens.reset(line));
+        assertTokens(line, line.trim().split("\\s+"), tokens.resetTrimmed(
+            line));
+    }
+
+
+    /**
+     * @param line
+     *            the line split
+     * @param expected
+     *            what split gave
+     * @param actual
+     *            what the tokenizer gave
+     */
+    private void assertTokens(
+        String line,
+        String[] expected,
+        CommandTokenizer actual) {
+        assertEquals(line, expected.length, actual.count());
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(line, expected[i], actual.text(i));
+            assertTrue(line, actual.is(i, expected[i]));
+        }
+    }
+}
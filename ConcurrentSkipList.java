@@ -0,0 +1,393 @@
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicMarkableReference;
+
+/**
+ * A lock-free SkipList that any number of threads can read and write at
+ * once. It has the same insert, search, remove and iterator contract as
+ * SkipList, duplicate keys included: pairs are kept in key order, and among
+ * pairs with equal keys the most recently inserted comes first.
+ *
+ * Every forward link is an AtomicMarkableReference. A pair is removed by
+ * first marking the links leaving its node, top level down, and the thread
+ * that marks the bottom link owns the removal. Marked nodes are then
+ * unlinked with compareAndSet by whichever thread passes them next, so no
+ * operation ever waits on a lock. Searches and iterators never unlink
+ * anything; they just step over marked nodes.
+ *
+ * Towers are drawn from ThreadLocalRandom rather than TestableRandom, so
+ * this list cannot reproduce the depths in a SkipList dump.
+ *
+ * @author kinjalpandey, architg03
+ * @version 02/28/2024
+ * @param <K>
+ *            Key
+ * @param <V>
+ *            Value
+ */
+public class ConcurrentSkipList<K extends Comparable<? super K>, V>
+    implements Iterable<KVPair<K, V>> {
+
+    // number of levels in the head tower, enough for any list that fits in
+    // memory at a promotion chance of one half
+    private static final int MAX_LEVEL = 32;
+
+    private final Node head;
+    // highest level any tower has reached, where descents start; it never
+    // goes back down, which is harmless since empty levels are cheap to skip
+    private final AtomicInteger levels;
+    private final AtomicInteger size;
+    // insertion counter that orders pairs with equal keys, newest first
+    private final AtomicLong nextSeq;
+
+    /**
+     * Creates an empty list.
+     */
+    public ConcurrentSkipList() {
+        head = new Node(null, Long.MAX_VALUE, MAX_LEVEL - 1);
+        levels = new AtomicInteger();
+        size = new AtomicInteger();
+        nextSeq = new AtomicLong();
+    }
+
+
+    /**
+     * @return the number of pairs in the list. While other threads are
+     *         writing, this is only a snapshot.
+     */
+    public int size() {
+        return size.get();
+    }
+
+
+    /**
+     * Inserts the pair in key order, in front of any pairs that already have
+     * its key.
+     *
+     * @param it
+     *            the KVPair to be inserted, ignored if null
+     */
+    public void insert(KVPair<K, V> it) {
+        if (it == null) {
+            return;
+        }
+        K key = it.getKey();
+        long seq = nextSeq.getAndIncrement();
+        Node node = new Node(it, seq, randomLevel());
+        levels.accumulateAndGet(node.topLevel, Math::max);
+        Node[] preds = newNodeArray();
+        Node[] succs = newNodeArray();
+        while (true) {
+            find(key, seq, preds, succs);
+            for (int level = 0; level <= node.topLevel; level++) {
+                node.next[level].set(succs[level], false);
+            }
+            // the pair is in the list once the bottom link is made
+            if (preds[0].next[0].compareAndSet(succs[0], node, false,
+                false)) {
+                break;
+            }
+        }
+        size.incrementAndGet();
+
+        for (int level = 1; level <= node.topLevel; level++) {
+            while (true) {
+                Node succ = succs[level];
+                Node old = node.next[level].getReference();
+                if (old != succ && !node.next[level].compareAndSet(old, succ,
+                    false, false)) {
+                    // a remover has marked the node, so stop raising it
+                    return;
+                }
+                if (preds[level].next[level].compareAndSet(succ, node, false,
+                    false)) {
+                    break;
+                }
+                find(key, seq, preds, succs);
+            }
+        }
+    }
+
+
+    /**
+     * Finds every pair with the given key, newest first.
+     *
+     * @param key
+     *            key to be searched for
+     * @return the pairs with that key
+     */
+    public ArrayList<KVPair<K, V>> search(K key) {
+        ArrayList<KVPair<K, V>> result = new ArrayList<>();
+        Node curr = firstAtLeast(key);
+        boolean[] marked = { false };
+        while (curr != null && curr.pair.getKey().compareTo(key) == 0) {
+            Node succ = curr.next[0].get(marked);
+            if (!marked[0]) {
+                result.add(curr.pair);
+            }
+            curr = succ;
+        }
+        return result;
+    }
+
+
+    /**
+     * Removes the first pair in list order with the given key. If another
+     * thread removes that pair first, the next pair with the key is tried.
+     *
+     * @param key
+     *            Key of the KVPair to remove.
+     * @return the removed KVPair, or null if no pair has that key
+     */
+    public KVPair<K, V> remove(K key) {
+        if (key == null) {
+            return null;
+        }
+        Node[] preds = newNodeArray();
+        Node[] succs = newNodeArray();
+        while (true) {
+            // no pair has a larger seq than this, so the search stops just
+            // before the first pair with the key
+            find(key, Long.MAX_VALUE, preds, succs);
+            Node victim = succs[0];
+            if (victim == null || victim.pair.getKey().compareTo(key) != 0) {
+                return null;
+            }
+            if (removeNode(victim, preds, succs)) {
+                return victim.pair;
+            }
+        }
+    }
+
+
+    /**
+     * Marks every link leaving a node, and unlinks it if this thread is the
+     * one that marks the bottom link.
+     *
+     * @param victim
+     *            the node to remove
+     * @param preds
+     *            scratch array for find
+     * @param succs
+     *            scratch array for find
+     * @return true if this thread removed the node
+     */
+    private boolean removeNode(Node victim, Node[] preds, Node[] succs) {
+        boolean[] marked = { false };
+        for (int level = victim.topLevel; level >= 1; level--) {
+            Node succ = victim.next[level].get(marked);
+            while (!marked[0]) {
+                victim.next[level].compareAndSet(succ, succ, false, true);
+                succ = victim.next[level].get(marked);
+            }
+        }
+        while (true) {
+            Node succ = victim.next[0].get(marked);
+            if (marked[0]) {
+                return false;
+            }
+            if (victim.next[0].compareAndSet(succ, succ, false, true)) {
+                // unlink it now rather than leave it for other threads
+                find(victim.pair.getKey(), victim.seq, preds, succs);
+                size.decrementAndGet();
+                return true;
+            }
+        }
+    }
+
+
+    /**
+     * Finds the nodes on each level just before and just after the position
+     * of (key, seq), unlinking any marked nodes on the way.
+     *
+     * @param key
+     *            the key of the position
+     * @param seq
+     *            the insertion number of the position
+     * @param preds
+     *            filled with the last node before the position on each level
+     * @param succs
+     *            filled with the first node at or after the position on each
+     *            level
+     */
+    private void find(K key, long seq, Node[] preds, Node[] succs) {
+        boolean[] marked = { false };
+        retry: while (true) {
+            Node pred = head;
+            for (int level = levels.get(); level >= 0; level--) {
+                Node curr = pred.next[level].getReference();
+                while (curr != null) {
+                    Node succ = curr.next[level].get(marked);
+                    if (marked[0]) {
+                        if (!pred.next[level].compareAndSet(curr, succ, false,
+                            false)) {
+                            continue retry;
+                        }
+                        curr = succ;
+                    }
+                    else if (before(curr, key, seq)) {
+                        pred = curr;
+                        curr = succ;
+                    }
+                    else {
+                        break;
+                    }
+                }
+                preds[level] = pred;
+                succs[level] = curr;
+            }
+            return;
+        }
+    }
+
+
+    /**
+     * Descends without unlinking anything to the first node whose key is
+     * greater than or equal to key.
+     *
+     * @param key
+     *            the key to look up
+     * @return the node, which may be marked, or null if there is none
+     */
+    private Node firstAtLeast(K key) {
+        boolean[] marked = { false };
+        Node pred = head;
+        Node curr = null;
+        for (int level = levels.get(); level >= 0; level--) {
+            curr = pred.next[level].getReference();
+            while (curr != null) {
+                Node succ = curr.next[level].get(marked);
+                if (!marked[0] && curr.pair.getKey().compareTo(key) < 0) {
+                    pred = curr;
+                }
+                else if (!marked[0]) {
+                    break;
+                }
+                curr = succ;
+            }
+        }
+        return curr;
+    }
+
+
+    /**
+     * @param node
+     *            a node in the list
+     * @param key
+     *            the key of a position
+     * @param seq
+     *            the insertion number of the position
+     * @return true if the node comes before the position
+     */
+    private boolean before(Node node, K key, long seq) {
+        int cmp = node.pair.getKey().compareTo(key);
+        return cmp < 0 || (cmp == 0 && node.seq > seq);
+    }
+
+
+    /**
+     * @return the highest level of a new tower, from 0 up to MAX_LEVEL - 1
+     */
+    private static int randomLevel() {
+        ThreadLocalRandom rng = ThreadLocalRandom.current();
+        int level = 0;
+        while (level < MAX_LEVEL - 1 && rng.nextBoolean()) {
+            level++;
+        }
+        return level;
+    }
+
+
+    /**
+     * @return an array with one slot per level
+     */
+    @SuppressWarnings("unchecked")
+    private Node[] newNodeArray() {
+        return (Node[])new ConcurrentSkipList<?, ?>.Node[MAX_LEVEL];
+    }
+
+
+    /**
+     * Returns an iterator over the pairs in list order. It is weakly
+     * consistent: it never fails because of other threads, and it sees every
+     * pair that stays in the list while it runs.
+     *
+     * @return an iterator over the pairs
+     */
+    @Override
+    public Iterator<KVPair<K, V>> iterator() {
+        return new Iterator<KVPair<K, V>>() {
+            private final boolean[] marked = { false };
+            private Node next = skipMarked(head.next[0].getReference());
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+
+            @Override
+            public KVPair<K, V> next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                KVPair<K, V> elem = next.pair;
+                next = skipMarked(next.next[0].getReference());
+                return elem;
+            }
+
+
+            /**
+             * @param node
+             *            a node on the bottom level, or null
+             * @return the first unmarked node from there on, or null
+             */
+            private Node skipMarked(Node node) {
+                Node curr = node;
+                while (curr != null) {
+                    Node succ = curr.next[0].get(marked);
+                    if (!marked[0]) {
+                        return curr;
+                    }
+                    curr = succ;
+                }
+                return null;
+            }
+        };
+    }
+
+
+    /**
+     * A node holding one pair and a tower of markable forward links.
+     */
+    private class Node {
+        private final KVPair<K, V> pair;
+        private final long seq;
+        private final int topLevel;
+        private final AtomicMarkableReference<Node>[] next;
+
+        /**
+         * @param pair
+         *            the pair to hold, null for the head
+         * @param seq
+         *            the insertion number of the pair
+         * @param topLevel
+         *            the highest level the node is linked on
+         */
+        @SuppressWarnings("unchecked")
+        Node(KVPair<K, V> pair, long seq, int topLevel) {
+            this.pair = pair;
+            this.seq = seq;
+            this.topLevel = topLevel;
+            next = (AtomicMarkableReference<Node>[])
+                new AtomicMarkableReference<?>[topLevel + 1];
+            for (int level = 0; level <= topLevel; level++) {
+                next[level] = new AtomicMarkableReference<>(null, false);
+            }
+        }
+    }
+}
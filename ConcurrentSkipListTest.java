@@ -0,0 +1,152 @@
+import java.util.ArrayList;
+import java.util.Iterator;
+import student.TestCase;
+
+/**
+ * Tests the ConcurrentSkipList class, first against the SkipList contract on
+ * one thread and then with several threads writing at once.
+ *
+ * @author kinjalpandey, architg03
+ * @version 02/28/2024
+ */
+public class ConcurrentSkipListTest extends TestCase {
+
+    private ConcurrentSkipList<String, Rectangle> sl;
+    private Rectangle r1;
+    private Rectangle r2;
+
+    /**
+     * Sets up the test cases
+     */
+    public void setUp() {
+        sl = new ConcurrentSkipList<>();
+        r1 = new Rectangle(1, 1, 1, 1);
+        r2 = new Rectangle(2, 2, 2, 2);
+    }
+
+
+    /**
+     * Testing insert(), search() and iterator()
+     * duplicate keys should come back newest first, like the SkipList
+     */
+    public void testInsertSearch() {
+        KVPair<String, Rectangle> b = new KVPair<>("b", r1);
+        KVPair<String, Rectangle> b2 = new KVPair<>("b", r2);
+        KVPair<String, Rectangle> a = new KVPair<>("a", r2);
+        sl.insert(b);
+        sl.insert(a);
+        sl.insert(b2);
+        sl.insert(null);
+        assertEquals(3, sl.size());
+
+        ArrayList<KVPair<String, Rectangle>> found = sl.search("b");
+        assertEquals(2, found.size());
+        assertSame(b2, found.get(0));
+        assertSame(b, found.get(1));
+        assertTrue(sl.search("c").isEmpty());
+
+        Iterator<KVPair<String, Rectangle>> itr = sl.iterator();
+        assertSame(a, itr.next());
+        assertSame(b2, itr.next());
+        assertSame(b, itr.next());
+        assertFalse(itr.hasNext());
+        Exception thrown = null;
+        try {
+            itr.next();
+        }
+        catch (Exception e) {
+            thrown = e;
+        }
+        assertTrue(thrown instanceof java.util.NoSuchElementException);
+    }
+
+
+    /**
+     * Testing remove()
+     * should remove the first pair with the key
+     */
+    public void testRemove() {
+        KVPair<String, Rectangle> b = new KVPair<>("b", r1);
+        KVPair<String, Rectangle> b2 = new KVPair<>("b", r2);
+        sl.insert(b);
+        sl.insert(b2);
+        assertNull(sl.remove("a"));
+        assertNull(sl.remove(null));
+        assertSame(b2, sl.remove("b"));
+        assertSame(b, sl.remove("b"));
+        assertNull(sl.remove("b"));
+        assertEquals(0, sl.size());
+        assertFalse(sl.iterator().hasNext());
+    }
+
+
+    /**
+     * Testing insert() and remove() from several threads at once
+     * every pair should be inserted and removed exactly once
+     *
+     * @throws InterruptedException
+     *             if the test thread is interrupted
+     */
+    public void testConcurrentWriters() throws InterruptedException {
+        final int threads = 4;
+        final int perThread = 2000;
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            final int id = t;
+            workers[t] = new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    sl.insert(new KVPair<>("k" + (i % 50), new Rectangle(id,
+                        i, 1, 1)));
+                }
+            });
+        }
+        runAll(workers);
+        assertEquals(threads * perThread, sl.size());
+        String last = "";
+        int count = 0;
+        for (KVPair<String, Rectangle> pair : sl) {
+            assertTrue(last.compareTo(pair.getKey()) <= 0);
+            last = pair.getKey();
+            count++;
+        }
+        assertEquals(threads * perThread, count);
+
+        final int[] removed = new int[threads];
+        for (int t = 0; t < threads; t++) {
+            final int id = t;
+            workers[t] = new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    if (sl.remove("k" + (i % 50)) != null) {
+                        removed[id]++;
+                    }
+                }
+            });
+        }
+        runAll(workers);
+        int total = 0;
+        for (int n : removed) {
+            total += n;
+        }
+        assertEquals(threads * perThread, total);
+        assertEquals(0, sl.size());
+        assertFalse(sl.iterator().hasNext());
+    }
+
+
+    /**
+     * Starts every thread and waits for all of them.
+     *
+     * @param workers
+     *            the threads to run
+     * @throws InterruptedException
+     *             if the test thread is interrupted
+     */
+    private void runAll(Thread[] workers) throws InterruptedException {
+        for (Thread worker : workers) {
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+    }
+}
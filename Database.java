@@ -1,5 +1,5 @@
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.function.Consumer;
 
 /**
  * This class is responsible for interfacing between the command processor and
@@ -27,19 +27,44 @@ public class Database {
     // see the KVPair class for more information
     private SkipList<String, Rectangle> list;
 
-    // This is an Iterator object over the SkipList to loop through it from
-    // outside the class.
-    // You will need to define an extra Iterator for the intersections method.
-    private Iterator<KVPair<String, Rectangle>> itr1;
+    // spatial index over the same KVPairs as the SkipList, used to answer
+    // region searches without visiting every rectangle
+    private RectangleQuadTree index;
+
+    // finds intersecting pairs for the intersections command
+    private IntersectionSweep sweep;
 
     // Integrating Point objects into Database
     private SkipList<String, Point> pointsByName;
+
+    // where every result is printed
+    private OutputSink out;
+
+    // prints each pair a search finds; made once so a search allocates
+    // nothing for it
+    private Consumer<KVPair<String, Rectangle>> printPair;
+
     /**
      * The constructor for this class initializes a SkipList object with String
-     * and Rectangle a its parameters.
+     * and Rectangle a its parameters. Results are printed to the console.
      */
     public Database() {
+        this(OutputSink.CONSOLE);
+    }
+
+
+    /**
+     * Creates an empty database that prints its results to the given sink.
+     * 
+     * @param out
+     *            where to print results
+     */
+    public Database(OutputSink out) {
+        this.out = out;
+        printPair = out::println;
         list = new SkipList<String, Rectangle>();
+        index = new RectangleQuadTree(1024);
+        sweep = new IntersectionSweep(1024);
         pointsByName = new SkipList<>();
         /***********PRQuadTree init*********/
     }
@@ -58,10 +83,51 @@ public class Database {
         // Delegates the decision mostly to our SkipList, only
         // writing the correct mesage to the console from
         // that
+        if (accept(pair)) {
+            list.insert(pair);
+            index.insert(pair);
+            out.println("Rectangle inserted: " + pair);
+        }
+    }
+
+
+    /**
+     * Inserts a batch of KVPairs, printing the same messages in the same
+     * order as calling insert on each of them. The accepted pairs are handed
+     * to the SkipList together, so when the Database is empty and the names
+     * come in sorted order the SkipList is built in one pass instead of one
+     * descent per pair.
+     * 
+     * @param pairs
+     *            the KVPairs to be inserted, in insertion order
+     */
+    public void insertAll(ArrayList<KVPair<String, Rectangle>> pairs) {
+        ArrayList<KVPair<String, Rectangle>> accepted = new ArrayList<>(pairs
+            .size());
+        for (KVPair<String, Rectangle> pair : pairs) {
+            if (accept(pair)) {
+                accepted.add(pair);
+                index.insert(pair);
+                out.println("Rectangle inserted: " + pair);
+            }
+        }
+        list.insertAll(accepted);
+    }
+
+
+    /**
+     * Checks that a rectangle has some area and lies inside the world,
+     * printing the rejection message if it does not.
+     * 
+     * @param pair
+     *            the KVPair to check
+     * @return true if the pair can be inserted
+     */
+    private boolean accept(KVPair<String, Rectangle> pair) {
         if (pair.getValue().isInvalid()) {
-            System.out.println("Rectangle rejected: (" + pair.getKey() + ", "
+            out.println("Rectangle rejected: (" + pair.getKey() + ", "
                 + pair.getValue().toString() + ")");
-            return;
+            return false;
         }
 
         Rectangle rect = pair.getValue();
@@ -69,12 +135,10 @@ public class Database {
             .getWidth() <= 0 || rect.getHeight() <= 0 || rect.getxCoordinate()
                 + rect.getWidth() > 1024 || rect.getyCoordinate() + rect
                     .getHeight() > 1024) {
-            System.out.println("Rectangle rejected: " + pair);
-        }
-        else {
-            list.insert(pair);
-            System.out.println("Rectangle inserted: " + pair);
+            out.println("Rectangle rejected: " + pair);
+            return false;
         }
+        return true;
     }
 
 
@@ -87,23 +151,16 @@ public class Database {
      */
     public void remove(String name) {
         if (name == null) {
-            System.out.println("Rectangle not removed: " + name);
+            out.println("Rectangle not removed: " + name);
             return;
         }
-        boolean found = false;
-        itr1 = list.iterator();
-        while (itr1.hasNext()) {
-            KVPair<String, Rectangle> pair = itr1.next();
-            if (pair.getKey().equals(name)) {
-                list.remove(name);
-                System.out.println("Rectangle removed: " + pair);
-                found = true;
-                break;
-            }
-        }
-        if (!found) {
-            System.out.println("Rectangle not removed: " + name);
+        KVPair<String, Rectangle> pair = list.removeFirst(name);
+        if (pair == null) {
+            out.println("Rectangle not removed: " + name);
+            return;
         }
+        index.remove(pair);
+        out.println("Rectangle removed: " + pair);
     }
 
 
@@ -124,25 +181,18 @@ public class Database {
         Rectangle toRemove = new Rectangle(x, y, w, h);
         if (toRemove.isInvalid() || x < 0 || y < 0 || x + w > 1024 || y
             + h > 1024) {
-            System.out.println("Rectangle rejected: (" + x + ", " + y + ", " + w
+            out.println("Rectangle rejected: (" + x + ", " + y + ", " + w
                 + ", " + h + ")");
             return;
         }
-        boolean found = false;
-        itr1 = list.iterator();
-        while (itr1.hasNext()) {
-            KVPair<String, Rectangle> pair = itr1.next();
-            if (pair.getValue().equals(toRemove)) {
-                list.removeByValue(pair.getValue());
-                System.out.println("Rectangle removed: " + pair);
-                found = true;
-                break;
-            }
-        }
-        if (!found) {
-            System.out.println("Rectangle not found: (" + x + ", " + y + ", "
+        KVPair<String, Rectangle> pair = list.removeByValue(toRemove);
+        if (pair == null) {
+            out.println("Rectangle not found: (" + x + ", " + y + ", "
                 + w + ", " + h + ")");
+            return;
         }
+        index.remove(pair);
+        out.println("Rectangle removed: " + pair);
     }
 
 
@@ -164,23 +214,19 @@ public class Database {
     public void regionsearch(int x, int y, int w, int h) {
         Rectangle searchArea = new Rectangle(x, y, w, h);
         if (searchArea.isInvalid()) {
-            System.out.println("Rectangle rejected: (" + x + ", " + y + ", " + w
+            out.println("Rectangle rejected: (" + x + ", " + y + ", " + w
                 + ", " + h + ")");
             return;
         }
-        System.out.println("Rectangles intersecting region (" + x + ", " + y
+        out.println("Rectangles intersecting region (" + x + ", " + y
             + ", " + w + ", " + h + "):");
-        boolean found = false;
-        itr1 = list.iterator();
-        while (itr1.hasNext()) {
-            KVPair<String, Rectangle> pair = itr1.next();
-            if (pair.getValue().intersect(searchArea)) {
-                System.out.println(pair);
-                found = true;
-            }
+        ArrayList<KVPair<String, Rectangle>> found = index.regionSearch(
+            searchArea);
+        for (KVPair<String, Rectangle> pair : found) {
+            out.println(pair);
         }
-        if (!found) {
-            System.out.println("No rectangles found intersecting the region");
+        if (found.isEmpty()) {
+            out.println("No rectangles found intersecting the region");
         }
     }
 
@@ -193,35 +239,19 @@ public class Database {
      * Rectangles.
      */
     public void intersections() {
-        System.out.println("Intersection pairs:");
-        @SuppressWarnings("unused")
-        boolean found = false;
-
-        Iterator<KVPair<String, Rectangle>> firstIterator = list.iterator();
-        while (firstIterator.hasNext()) {
-            KVPair<String, Rectangle> firstPair = firstIterator.next();
-            Iterator<KVPair<String, Rectangle>> secondIterator = list
-                .iterator();
-
-            // Advance the second iterator to the next element after the
-            // firstPair to avoid self-comparison
-            while (secondIterator.hasNext() && !secondIterator.next().equals(
-                firstPair)) {
-                // Intentionally empty to sync secondIterator with firstPair's
-                // position
-            }
-
-            // Now, compare firstPair with all following pairs
-            while (secondIterator.hasNext()) {
-                KVPair<String, Rectangle> secondPair = secondIterator.next();
-                if (firstPair.getValue().intersect(secondPair.getValue())) {
-                    System.out.println("(" + firstPair + " | " + secondPair
-                        + ")");
-                    System.out.println("(" + firstPair + " | " + secondPair
-                        + ")");
-                    found = true;
-                }
-            }
+        out.println("Intersection pairs:");
+        ArrayList<KVPair<String, Rectangle>> pairs = new ArrayList<>(list
+            .size());
+        ArrayList<Rectangle> rects = new ArrayList<>(list.size());
+        for (KVPair<String, Rectangle> pair : list) {
+            pairs.add(pair);
+            rects.add(pair.getValue());
+        }
+        // the sweep reports positions in SkipList order, so the output
+        // matches walking the list with a nested pair of iterators
+        for (int[] hit : sweep.findPairs(rects)) {
+            out.println("(" + pairs.get(hit[0]) + " | " + pairs.get(
+                hit[1]) + ")");
         }
     }
 
@@ -234,21 +264,13 @@ public class Database {
      *            name of the Rectangle to be searched for
      */
     public void search(String name) {
-        boolean found = false;
-        itr1 = list.iterator();
-        while (itr1.hasNext()) {
-            KVPair<String, Rectangle> pair = itr1.next();
-            if (pair.getKey().equals(name)) {
-                if (!found) {
-                    System.out.println("Rectangles found:");
-                    found = true;
-                }
-                System.out.println(pair); // Print each found rectangle
-            }
-        }
-        if (!found) {
-            System.out.println("Rectangle not found: (" + name + ")");
+        if (!list.contains(name)) {
+            out.println("Rectangle not found: (" + name + ")");
+            return;
         }
+        out.println("Rectangles found:");
+        // Print each found rectangle
+        list.search(name, printPair);
     }
 
 
@@ -258,7 +280,7 @@ public class Database {
      * will all be delegated to the SkipList.
      */
     public void dump() {
-        list.dump();
+        list.dump(out);
     }
     
     
@@ -280,9 +302,9 @@ public class Database {
         // Search in SkipList. similar structure to ArrayList<KVPair<String, Point>>
         ArrayList<KVPair<String, Point>> searchResults = pointsByName.search(name);
         if (searchResults != null) {
-            System.out.println(searchResults);
+            out.println(searchResults);
         } else {
-            System.out.println("No point found with name: " + name);
+            out.println("No point found with name: " + name);
         }
     }
 }
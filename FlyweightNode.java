@@ -1,4 +1,5 @@
 import java.util.ArrayList;
+import java.util.function.Consumer;
 
 /**
  * FlyweightNode is a class that extends QuadTreeNode.
@@ -26,7 +27,9 @@ public class FlyweightNode extends QuadTreeNode {
     }
 
     /**
-     * Inserts a point into the QuadTree.
+     * Inserts a point into the QuadTree, in a leaf of the default capacity.
+     * Trees built with their own capacity insert through the overload that
+     * takes it.
      * 
      * @param point The point to insert.
      * @param x     The x-coordinate of the node.
@@ -36,8 +39,23 @@ public class FlyweightNode extends QuadTreeNode {
      */
     @Override
     public QuadTreeNode insert(Point point, int x, int y, int size) {
-        LeafNode newNode = new LeafNode();
-        return newNode.insert(point, x, y, size);
+        return insert(point, x, y, size, LeafNode.DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Inserts a point into the QuadTree, in a new leaf of the given capacity.
+     * 
+     * @param point    The point to insert.
+     * @param x        The x-coordinate of the node.
+     * @param y        The y-coordinate of the node.
+     * @param size     The size of the node.
+     * @param capacity The number of points the new leaf holds before
+     *                 splitting.
+     * @return The node after insertion.
+     */
+    public QuadTreeNode insert(Point point, int x, int y, int size,
+            int capacity) {
+        return new LeafNode(capacity).insert(point, x, y, size);
     }
 
     /**
@@ -47,11 +65,11 @@ public class FlyweightNode extends QuadTreeNode {
      * @param x     The x-coordinate of the node.
      * @param y     The y-coordinate of the node.
      * @param size  The size of the node.
-     * @return false as FlyweightNode doesn't hold any data.
+     * @return this node as FlyweightNode doesn't hold any data.
      */
     @Override
-    public boolean remove(Point point, int x, int y, int size) {
-        return false;
+    public QuadTreeNode remove(Point point, int x, int y, int size) {
+        return this;
     }
 
     /**
@@ -75,12 +93,32 @@ public class FlyweightNode extends QuadTreeNode {
      * @param nodeX    The x-coordinate of the node.
      * @param nodeY    The y-coordinate of the node.
      * @param nodeSize The size of the node.
-     * @return An empty list as FlyweightNode doesn't hold any data.
+     * @param sink     Never called as FlyweightNode doesn't hold any data.
      */
     @Override
-    public ArrayList<Point> regionSearch(int queryX, int queryY, int width, int height, int nodeX, int nodeY,
-            int nodeSize) {
-        return new ArrayList<>();
+    public void regionSearch(int queryX, int queryY, int width, int height, int nodeX, int nodeY,
+            int nodeSize, Consumer<Point> sink) {
+        // no points to report
+    }
+
+    /**
+     * Passes nothing to the sink as FlyweightNode doesn't hold any data.
+     * 
+     * @param sink Never called.
+     */
+    @Override
+    public void reportAll(Consumer<Point> sink) {
+        // no points to report
+    }
+
+    /**
+     * Finds duplicate locations in the QuadTree.
+     * 
+     * @param duplicates The list the duplicated locations are added to.
+     */
+    @Override
+    public void findDuplicates(ArrayList<Point> duplicates) {
+        // no points, so no duplicates
     }
 
     /**
@@ -63,12 +63,24 @@ public class FlyweightNodeTest extends TestCase {
 
 
     /**
-     * Tests that the remove method of FlyweightNode always returns false.
+     * Tests that inserting with a capacity makes a leaf of that capacity.
+     */
+    public void testInsertCapacity() {
+        Point other = new Point("Other", 900, 900);
+        QuadTreeNode small = flyweightNode1.insert(testPoint, 0, 0, 1024, 1);
+        assertTrue(small.insert(other, 0, 0, 1024) instanceof InternalNode);
+        QuadTreeNode large = flyweightNode1.insert(testPoint, 0, 0, 1024, 2);
+        assertSame(large, large.insert(other, 0, 0, 1024));
+    }
+
+
+    /**
+     * Tests that the remove method of FlyweightNode always returns itself.
      */
     public void testRemove() {
-        assertFalse(
-            "Remove method should always return false for FlyweightNode",
-            flyweightNode1.remove(testPoint, 0, 0, 1024));
+        assertSame(
+            "Remove method should always return the FlyweightNode itself",
+            flyweightNode1, flyweightNode1.remove(testPoint, 0, 0, 1024));
     }
 
 
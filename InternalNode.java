@@ -1,4 +1,5 @@
 import java.util.ArrayList;
+import java.util.function.Consumer;
 
 /**
  * Represents an internal node in a PR Quadtree. Internal nodes do not hold data
@@ -11,10 +12,16 @@ import java.util.ArrayList;
  */
 public class InternalNode extends QuadTreeNode {
 
+    // deepest path a descent can take, since the region size halves at
+    // every level and an int can only be halved 32 times
+    static final int MAX_DEPTH = 32;
+
     private QuadTreeNode nw;
     private QuadTreeNode ne;
     private QuadTreeNode sw;
     private QuadTreeNode se;
+    // capacity given to the leaves created below this node
+    private final int leafCapacity;
 
     /**
      * Constructs an InternalNode with all child nodes initialized to the
@@ -22,7 +29,19 @@ public class InternalNode extends QuadTreeNode {
      * representing empty quadrants.
      */
     public InternalNode() {
+        this(LeafNode.DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs an empty InternalNode whose new leaves split once they hold
+     * more than the given number of points.
+     *
+     * @param leafCapacity
+     *                     The capacity of leaves created below this node.
+     */
+    public InternalNode(int leafCapacity) {
         super();
+        this.leafCapacity = leafCapacity;
         nw = FlyweightNode.getInstance();
         ne = FlyweightNode.getInstance();
         sw = FlyweightNode.getInstance();
@@ -42,64 +61,135 @@ public class InternalNode extends QuadTreeNode {
      *              region.
      * @param size
      *              The size of the current region.
-     * @return The quadrant the point belongs to.
+     * @return The quadrant the point belongs to: 0 for NW, 1 for NE, 2 for SW
+     *         and 3 for SE.
      */
-    private QuadTreeNode findQuadrant(Point point, int x, int y, int size) {
+    private static int quadrantOf(Point point, int x, int y, int size) {
         int halfSize = size / 2;
-        int midX = x + halfSize;
-        int midY = y + halfSize;
-
-        // Determine which quadrant the point belongs to.
-        if (point.getX() < midX) {
-            if (point.getY() < midY) {
-                return nw; // NW quadrant
-            } else {
-                return sw; // SW quadrant
-            }
-        } else {
-            if (point.getY() < midY) {
-                return ne; // NE quadrant
-            } else {
-                return se; // SE quadrant
-            }
+        int quadrant = point.getX() < x + halfSize ? 0 : 1;
+        if (point.getY() >= y + halfSize) {
+            quadrant += 2;
         }
+        return quadrant;
     }
 
-    @Override
-    public QuadTreeNode insert(Point point, int x, int y, int size) {
-        QuadTreeNode quadrant = findQuadrant(point, x, y, size);
-
-        // Check if the point already exists in the quadrant.
-        if (quadrant.search(point.getName()).contains(point)) {
-            return this; // Return this internal node without inserting the point.
+    /**
+     * Gets the child in a quadrant.
+     *
+     * @param quadrant
+     *                 The quadrant, as returned by quadrantOf.
+     * @return The child node.
+     */
+    private QuadTreeNode child(int quadrant) {
+        switch (quadrant) {
+            case 0:
+                return nw;
+            case 1:
+                return ne;
+            case 2:
+                return sw;
+            default:
+                return se;
         }
+    }
 
-        // Insert the point if it does not exist.
-        int halfSize = size / 2;
-        int midX = x + halfSize;
-        int midY = y + halfSize;
+    /**
+     * Replaces the child in a quadrant.
+     *
+     * @param quadrant
+     *                 The quadrant, as returned by quadrantOf.
+     * @param node
+     *                 The new child node.
+     */
+    private void setChild(int quadrant, QuadTreeNode node) {
+        switch (quadrant) {
+            case 0:
+                nw = node;
+                break;
+            case 1:
+                ne = node;
+                break;
+            case 2:
+                sw = node;
+                break;
+            default:
+                se = node;
+                break;
+        }
+    }
 
-        if (point.getX() < midX) {
-            if (point.getY() < midY) {
-                nw = nw.insert(point, x, y, halfSize); // NW quadrant
-            } else {
-                sw = sw.insert(point, x, midY, halfSize); // SW quadrant
-            }
-        } else {
-            if (point.getY() < midY) {
-                ne = ne.insert(point, midX, y, halfSize); // NE quadrant
-            } else {
-                se = se.insert(point, midX, midY, halfSize); // SE quadrant
+    /**
+     * Inserts a point below this node. The internal nodes on the way down
+     * are walked in a loop, and the point is only handed to the leaf (or
+     * empty quadrant) at the bottom. That leaf already ignores a point it
+     * holds, so no other part of the subtree needs to be searched first.
+     *
+     * @param point
+     *              The point to insert.
+     * @param x
+     *              The x-coordinate of the upper left corner of the current
+     *              region.
+     * @param y
+     *              The y-coordinate of the upper left corner of the current
+     *              region.
+     * @param size
+     *              The size of the current region.
+     * @return This node, which stays the root of the subtree.
+     */
+    @Override
+    public QuadTreeNode insert(Point point, int x, int y, int size) {
+        InternalNode node = this;
+        int nodeX = x;
+        int nodeY = y;
+        int nodeSize = size;
+        while (true) {
+            int quadrant = quadrantOf(point, nodeX, nodeY, nodeSize);
+            nodeSize /= 2;
+            nodeX += (quadrant % 2) * nodeSize;
+            nodeY += (quadrant / 2) * nodeSize;
+            QuadTreeNode child = node.child(quadrant);
+            if (!(child instanceof InternalNode)) {
+                node.setChild(quadrant, node.insertInto(child, point, nodeX,
+                        nodeY, nodeSize));
+                return this;
             }
+            node = (InternalNode) child;
         }
+    }
 
-        return this; // Return this internal node after the insertion.
+    /**
+     * Inserts a point into a child, replacing an empty child with a leaf of
+     * this node's leaf capacity.
+     *
+     * @param child
+     *              The child to insert into.
+     * @param point
+     *              The point to insert.
+     * @param x
+     *              The x-coordinate of the child.
+     * @param y
+     *              The y-coordinate of the child.
+     * @param size
+     *              The size of the child.
+     * @return The child after insertion.
+     */
+    private QuadTreeNode insertInto(QuadTreeNode child, Point point, int x,
+            int y, int size) {
+        if (child instanceof FlyweightNode) {
+            return ((FlyweightNode) child).insert(point, x, y, size,
+                    leafCapacity);
+        }
+        return child.insert(point, x, y, size);
     }
 
     /**
-     * Removes a point from the appropriate quadrant. If the removal leads to an
-     * empty quadrant,
-     * it considers converting the child node back to a FlyweightNode.
+     * Removes a point from the appropriate quadrant. Once the quadrants are
+     * all leaves or empty and their points fit in a single leaf (or all sit
+     * at one location), this node is merged back into one LeafNode, so the
+     * tree gets shallower again as points are removed. The descent is a
+     * loop that records the internal nodes it passes, and the merges are
+     * then applied from the bottom up, stopping at the first node that does
+     * not merge.
      *
      * @param point
      *              The point to remove.
@@ -111,47 +201,115 @@ public class InternalNode extends QuadTreeNode {
      *              region.
      * @param size
      *              The size of the current region.
-     * @return true if the point was removed; false otherwise.
+     * @return The node that replaces this one after the removal.
      */
     @Override
-    public boolean remove(Point point, int x, int y, int size) {
-        int midX = x + size / 2;
-        int midY = y + size / 2;
+    public QuadTreeNode remove(Point point, int x, int y, int size) {
+        return remove(point, x, y, size, new InternalNode[MAX_DEPTH],
+                new int[MAX_DEPTH]);
+    }
 
-        if (point.getX() < midX) {
-            if (point.getY() < midY) {
-                if (nw.remove(point, x, y, size / 2)) {
-                    if (nw instanceof FlyweightNode) {
-                        nw = FlyweightNode.getInstance();
-                    }
-                    return true;
-                }
-            } else {
-                if (sw.remove(point, x, midY, size / 2)) {
-                    if (sw instanceof FlyweightNode) {
-                        sw = FlyweightNode.getInstance();
-                    }
-                    return true;
-                }
+    /**
+     * Removes a point as remove(point, x, y, size) does, recording the
+     * descent in buffers the caller keeps, so a tree that removes many
+     * points allocates them once.
+     *
+     * @param point
+     *                  The point to remove.
+     * @param x
+     *                  The x-coordinate of the upper left corner of the
+     *                  current region.
+     * @param y
+     *                  The y-coordinate of the upper left corner of the
+     *                  current region.
+     * @param size
+     *                  The size of the current region.
+     * @param path
+     *                  Room for MAX_DEPTH internal nodes, left empty.
+     * @param quadrants
+     *                  Room for MAX_DEPTH quadrants.
+     * @return The node that replaces this one after the removal.
+     */
+    QuadTreeNode remove(Point point, int x, int y, int size,
+            InternalNode[] path, int[] quadrants) {
+        int depth = 0;
+        InternalNode node = this;
+        int nodeX = x;
+        int nodeY = y;
+        int nodeSize = size;
+        QuadTreeNode child;
+        while (true) {
+            int quadrant = quadrantOf(point, nodeX, nodeY, nodeSize);
+            nodeSize /= 2;
+            nodeX += (quadrant % 2) * nodeSize;
+            nodeY += (quadrant / 2) * nodeSize;
+            path[depth] = node;
+            quadrants[depth] = quadrant;
+            depth++;
+            child = node.child(quadrant);
+            if (!(child instanceof InternalNode)) {
+                break;
             }
-        } else {
-            if (point.getY() < midY) {
-                if (ne.remove(point, midX, y, size / 2)) {
-                    if (ne instanceof FlyweightNode) {
-                        ne = FlyweightNode.getInstance();
-                    }
-                    return true;
-                }
-            } else {
-                if (se.remove(point, midX, midY, size / 2)) {
-                    if (se instanceof FlyweightNode) {
-                        se = FlyweightNode.getInstance();
-                    }
-                    return true;
+            node = (InternalNode) child;
+        }
+
+        QuadTreeNode replacement = child.remove(point, nodeX, nodeY, nodeSize);
+        while (depth > 0) {
+            depth--;
+            InternalNode parent = path[depth];
+            // the buffer outlives this call, so it must not keep nodes alive
+            path[depth] = null;
+            parent.setChild(quadrants[depth], replacement);
+            replacement = parent.collapse();
+            if (replacement == parent) {
+                // a node that keeps its children stops every merge above it
+                while (depth > 0) {
+                    path[--depth] = null;
                 }
+                return this;
+            }
+        }
+        return replacement;
+    }
+
+    /**
+     * Merges the quadrants into a single node if they no longer need an
+     * internal node to separate them.
+     *
+     * @return FlyweightNode if all quadrants are empty, a merged LeafNode if
+     *         the points fit in one leaf, or this node otherwise.
+     */
+    private QuadTreeNode collapse() {
+        QuadTreeNode[] children = { nw, ne, sw, se };
+        int total = 0;
+        int leaves = 0;
+        LeafNode leaf = null;
+        for (QuadTreeNode child : children) {
+            if (child instanceof InternalNode) {
+                return this;
+            }
+            if (child instanceof LeafNode) {
+                leaf = (LeafNode) child;
+                total += leaf.size();
+                leaves++;
+            }
+        }
+        if (total == 0) {
+            return FlyweightNode.getInstance();
+        }
+        // points in different quadrants never share a location, so too many
+        // points only fit in one leaf when they all sit in one quadrant at
+        // one spot; decide that before building a leaf that would be dropped
+        if (total > leafCapacity && (leaves > 1 || !leaf.sameLocation())) {
+            return this;
+        }
+        LeafNode merged = new LeafNode(leafCapacity);
+        for (QuadTreeNode child : children) {
+            if (child instanceof LeafNode) {
+                merged.absorb((LeafNode) child);
             }
         }
-        return false;
+        return merged;
     }
 
     /**
@@ -172,9 +330,23 @@ public class InternalNode extends QuadTreeNode {
         return foundPoints;
     }
 
+    /**
+     * Collects the duplicated locations of each quadrant.
+     *
+     * @param duplicates
+     *                   The list the duplicated locations are added to.
+     */
+    @Override
+    public void findDuplicates(ArrayList<Point> duplicates) {
+        nw.findDuplicates(duplicates);
+        ne.findDuplicates(duplicates);
+        sw.findDuplicates(duplicates);
+        se.findDuplicates(duplicates);
+    }
+
     /**
      * Performs a region search to find all points within a specified
-     * rectangular area.
+     * rectangular area, passing each one to the sink.
      *
      * @param queryX
      *                 The x-coordinate of the upper left corner of the query
@@ -194,57 +366,63 @@ public class InternalNode extends QuadTreeNode {
      *                 node's region.
      * @param nodeSize
      *                 The size of the current node's region.
-     * @return A list of points found within the query region.
+     * @param sink
+     *                 Receives every point found within the query region.
      */
     @Override
-    public ArrayList<Point> regionSearch(
+    public void regionSearch(
             int queryX,
             int queryY,
             int width,
             int height,
             int nodeX,
             int nodeY,
-            int nodeSize) {
-        ArrayList<Point> foundPoints = new ArrayList<>();
-        int midX = nodeX + nodeSize / 2;
-        int midY = nodeY + nodeSize / 2;
-
-        if (intersects(queryX, queryY, width, height, nodeX, nodeY, nodeSize,
+            int nodeSize,
+            Consumer<Point> sink) {
+        if (!overlaps(queryX, queryY, width, height, nodeX, nodeY,
                 nodeSize)) {
-            foundPoints.addAll(nw.regionSearch(queryX, queryY, width, height,
-                    nodeX, nodeY, nodeSize / 2));
-            foundPoints.addAll(ne.regionSearch(queryX, queryY, width, height,
-                    midX, nodeY, nodeSize / 2));
-            foundPoints.addAll(sw.regionSearch(queryX, queryY, width, height,
-                    nodeX, midY, nodeSize / 2));
-            foundPoints.addAll(se.regionSearch(queryX, queryY, width, height,
-                    midX, midY, nodeSize / 2));
+            return;
+        }
+        if (covers(queryX, queryY, width, height, nodeX, nodeY, nodeSize)) {
+            // every point below this node is inside the query
+            reportAll(sink);
+            return;
+        }
+        int half = nodeSize / 2;
+        int midX = nodeX + half;
+        int midY = nodeY + half;
+
+        // only descend into quadrants that overlap the query
+        if (overlaps(queryX, queryY, width, height, nodeX, nodeY, half)) {
+            nw.regionSearch(queryX, queryY, width, height,
+                    nodeX, nodeY, half, sink);
+        }
+        if (overlaps(queryX, queryY, width, height, midX, nodeY, half)) {
+            ne.regionSearch(queryX, queryY, width, height,
+                    midX, nodeY, half, sink);
+        }
+        if (overlaps(queryX, queryY, width, height, nodeX, midY, half)) {
+            sw.regionSearch(queryX, queryY, width, height,
+                    nodeX, midY, half, sink);
+        }
+        if (overlaps(queryX, queryY, width, height, midX, midY, half)) {
+            se.regionSearch(queryX, queryY, width, height,
+                    midX, midY, half, sink);
         }
-        return foundPoints;
     }
 
     /**
-     * Helper method to determine if two regions intersect.
+     * Passes every point in all four quadrants to the sink.
      *
-     * @param queryX,
-     *                queryY, width, height The coordinates and dimensions of the
-     *                search area.
-     * @param nodeX,
-     *                nodeY, nodeWidth, nodeHeight The coordinates and dimensions of
-     *                the node's quadrant.
-     * @return true if the regions intersect; false otherwise.
+     * @param sink
+     *             Receives every point below this node.
      */
-    private boolean intersects(
-            int queryX,
-            int queryY,
-            int width,
-            int height,
-            int nodeX,
-            int nodeY,
-            int nodeWidth,
-            int nodeHeight) {
-        return queryX < nodeX + nodeWidth && queryX + width > nodeX
-                && queryY < nodeY + nodeHeight && queryY + height > nodeY;
+    @Override
+    public void reportAll(Consumer<Point> sink) {
+        nw.reportAll(sink);
+        ne.reportAll(sink);
+        sw.reportAll(sink);
+        se.reportAll(sink);
     }
 
     /**
@@ -87,14 +87,15 @@ public class InternalNodeTest extends TestCase {
         internalNode.insert(testPointNW, 0, 0, 1024);
 
         // Then attempt to remove it
-        boolean removed = internalNode.remove(testPointNW, 0, 0, 1024);
-        assertTrue("Point should be removed successfully", removed);
+        QuadTreeNode result = internalNode.remove(testPointNW, 0, 0, 1024);
+        assertSame("Removing the only point should empty the node",
+            FlyweightNode.getInstance(), result);
 
         // Attempt to remove a non-existent point
-        removed = internalNode.remove(new Point("NonExistent", 500, 500), 0, 0,
+        result = internalNode.remove(new Point("NonExistent", 500, 500), 0, 0,
             1024);
-        assertFalse("Attempt to remove a non-existent point should fail",
-            removed);
+        assertSame("Removing from an empty node should leave it empty",
+            FlyweightNode.getInstance(), result);
     }
 
 
@@ -169,10 +170,12 @@ public class InternalNodeTest extends TestCase {
         point1 = new Point("Point1", 0, 0);
 
         internalNode.insert(point1, 0, 0, 100);
-        assertTrue(internalNode.remove(point1, 0, 0, 100));
+        assertSame(FlyweightNode.getInstance(), internalNode.remove(point1, 0,
+            0, 100));
         // To test mutation, try altering the coordinates and size
         // internalNode.insert(point1, 0, 0, 100);
-        assertFalse(internalNode.remove(point1, 0, 0, 50));
+        assertSame(FlyweightNode.getInstance(), internalNode.remove(point1, 0,
+            0, 50));
     }
 
 
@@ -183,7 +186,8 @@ public class InternalNodeTest extends TestCase {
     public void testRemoveSouthwest() {
         Point pointSouthwest = new Point("PointSW", 10, 30);
         internalNode.insert(pointSouthwest, 0, 0, 100);
-        assertTrue(internalNode.remove(pointSouthwest, 0, 0, 100));
+        assertSame(FlyweightNode.getInstance(), internalNode.remove(pointSouthwest, 0,
+            0, 100));
     }
 
 
@@ -194,7 +198,8 @@ public class InternalNodeTest extends TestCase {
     public void testRemoveNortheast() {
         Point pointNortheast = new Point("PointNE", 30, 10);
         internalNode.insert(pointNortheast, 0, 0, 100);
-        assertTrue(internalNode.remove(pointNortheast, 0, 0, 100));
+        assertSame(FlyweightNode.getInstance(), internalNode.remove(pointNortheast, 0,
+            0, 100));
     }
 
 
@@ -205,10 +210,12 @@ public class InternalNodeTest extends TestCase {
     public void testRemoveSoutheast() {
         point2 = new Point("Point2", 0, 0);
         internalNode.insert(point2, 0, 0, 100);
-        assertTrue(internalNode.remove(point2, 0, 0, 100));
+        assertSame(FlyweightNode.getInstance(), internalNode.remove(point2, 0,
+            0, 100));
         // To test mutation, try altering the coordinates and size
         // internalNode.insert(point2, 0, 0, 100);
-        assertFalse(internalNode.remove(point2, 0, 0, 50));
+        assertSame(FlyweightNode.getInstance(), internalNode.remove(point2, 0,
+            0, 50));
     }
 
 
@@ -222,12 +229,14 @@ public class InternalNodeTest extends TestCase {
         // require removal at the boundary of the size division.
         Point edgeCasePoint = new Point("EdgeCase", 50, 50);
         internalNode.insert(edgeCasePoint, 0, 0, 100);
-        assertTrue(internalNode.remove(edgeCasePoint, 0, 0, 100));
+        assertSame(FlyweightNode.getInstance(), internalNode.remove(edgeCasePoint, 0,
+            0, 100));
 
         // Insert a point that would fail if arithmetic operations are incorrect
         Point failIfMutatedPoint = new Point("FailIfMutated", 49, 49);
         internalNode.insert(failIfMutatedPoint, 0, 0, 100);
-        assertTrue(internalNode.remove(failIfMutatedPoint, 0, 0, 100));
+        assertSame(FlyweightNode.getInstance(), internalNode.remove(failIfMutatedPoint, 0,
+            0, 100));
     }
 
 
@@ -240,12 +249,14 @@ public class InternalNodeTest extends TestCase {
         // Test removal with a point that would pass the comparison checks
         point1 = new Point("Point1", 0, 0);
         internalNode.insert(point1, 0, 0, 100);
-        assertTrue(internalNode.remove(point1, 0, 0, 100));
+        assertSame(FlyweightNode.getInstance(), internalNode.remove(point1, 0,
+            0, 100));
 
         // Test removal with a point that should fail the comparison checks
         // and thus not be removed if the logical expressions are mutated.
         Point outsideBoundsPoint = new Point("Outside", 200, 200);
-        assertFalse(internalNode.remove(outsideBoundsPoint, 0, 0, 100));
+        assertSame(FlyweightNode.getInstance(), internalNode.remove(outsideBoundsPoint, 0,
+            0, 100));
     }
 
 
@@ -364,15 +375,74 @@ public class InternalNodeTest extends TestCase {
         internalNode.insert(testPointSW, 0, 0, 1024);
         internalNode.insert(testPointSE, 0, 0, 1024);
 
-        // Remove points from respective quadrants
-        assertTrue(internalNode.remove(testPointNW, 0, 0, 1024));
-        assertTrue(internalNode.remove(testPointNE, 0, 0, 1024));
-        assertTrue(internalNode.remove(testPointSW, 0, 0, 1024));
-        assertTrue(internalNode.remove(testPointSE, 0, 0, 1024));
+        // Remove points from respective quadrants. The three points left
+        // after the first removal fit in one leaf, so the node collapses.
+        QuadTreeNode result = internalNode.remove(testPointNW, 0, 0, 1024);
+        assertTrue(result instanceof LeafNode);
+        assertEquals(3, ((LeafNode)result).size());
+        result = result.remove(testPointNE, 0, 0, 1024);
+        result = result.remove(testPointSW, 0, 0, 1024);
+        assertEquals(1, ((LeafNode)result).size());
 
         // Try to remove a point that doesn't exist
         Point nonExistentPoint = new Point("NonExistent", 500, 500);
-        assertFalse(internalNode.remove(nonExistentPoint, 0, 0, 1024));
+        assertSame(result, result.remove(nonExistentPoint, 0, 0, 1024));
+        assertEquals(1, ((LeafNode)result).size());
+
+        result = result.remove(testPointSE, 0, 0, 1024);
+        assertSame(FlyweightNode.getInstance(), result);
+    }
+
+
+    /**
+     * Tests that a removal only collapses the node when the points left fit
+     * in one leaf: too many points in two quadrants keep the node, and too
+     * many points at one spot in a single quadrant merge into one leaf.
+     */
+    public void testRemoveCollapse() {
+        Point[] same = new Point[6];
+        for (int i = 0; i < same.length; i++) {
+            same[i] = new Point("Same" + i, 100, 100);
+            internalNode.insert(same[i], 0, 0, 1024);
+        }
+        internalNode.insert(testPointNE, 0, 0, 1024);
+
+        // five points at one spot and one more elsewhere
+        assertSame(internalNode, internalNode.remove(same[5], 0, 0, 1024));
+        QuadTreeNode result = internalNode.remove(testPointNE, 0, 0, 1024);
+        assertTrue(result instanceof LeafNode);
+        assertEquals(5, ((LeafNode)result).size());
+        assertTrue(((LeafNode)result).sameLocation());
+    }
+
+
+    /**
+     * Tests that a removal through reused buffers gives the same results as
+     * a plain removal and leaves the buffers empty, whether the merges stop
+     * part way up or run to the top.
+     */
+    public void testRemoveWithBuffers() {
+        InternalNode[] path = new InternalNode[InternalNode.MAX_DEPTH];
+        int[] quadrants = new int[InternalNode.MAX_DEPTH];
+        Point[] near = new Point[4];
+        for (int i = 0; i < near.length; i++) {
+            near[i] = new Point("Near" + i, i, i);
+            internalNode.insert(near[i], 0, 0, 1024);
+        }
+        internalNode.insert(testPointSE, 0, 0, 1024);
+
+        assertSame(internalNode, internalNode.remove(near[3], 0, 0, 1024,
+            path, quadrants));
+        for (InternalNode node : path) {
+            assertNull(node);
+        }
+        QuadTreeNode result = internalNode.remove(testPointSE, 0, 0, 1024,
+            path, quadrants);
+        assertTrue(result instanceof LeafNode);
+        assertEquals(3, ((LeafNode)result).size());
+        for (InternalNode node : path) {
+            assertNull(node);
+        }
     }
 
 
@@ -393,8 +463,11 @@ public class InternalNodeTest extends TestCase {
 
         // Remove edge points, which tests if midX and midY are calculated
         // correctly
-        assertTrue(internalNode.remove(edgePoint1, 0, 0, 1024));
-        assertTrue(internalNode.remove(edgePoint2, 0, 0, 1024));
+        QuadTreeNode result = internalNode.remove(edgePoint1, 0, 0, 1024);
+        assertTrue(result.search("EdgePoint1").isEmpty());
+        assertEquals(1, result.search("EdgePoint2").size());
+        assertSame(FlyweightNode.getInstance(), result.remove(edgePoint2, 0,
+            0, 1024));
     }
 
 
@@ -415,8 +488,11 @@ public class InternalNodeTest extends TestCase {
 
         // Remove edge points, which tests the logical checks in the if
         // statements
-        assertTrue(internalNode.remove(edgePoint1, 0, 0, 1024));
-        assertTrue(internalNode.remove(edgePoint2, 0, 0, 1024));
+        QuadTreeNode result = internalNode.remove(edgePoint1, 0, 0, 1024);
+        assertTrue(result.search("EdgePoint1").isEmpty());
+        assertEquals(1, result.search("EdgePoint2").size());
+        assertSame(FlyweightNode.getInstance(), result.remove(edgePoint2, 0,
+            0, 1024));
     }
 
 
@@ -429,13 +505,15 @@ public class InternalNodeTest extends TestCase {
         // This tests the '>=' vs '>' mutation possibility
         Point boundaryPoint = new Point("BoundaryPoint", 512, 512);
         internalNode.insert(boundaryPoint, 0, 0, 1024);
-        assertTrue(internalNode.remove(boundaryPoint, 0, 0, 1024));
+        assertSame(FlyweightNode.getInstance(), internalNode.remove(
+            boundaryPoint, 0, 0, 1024));
 
         // If the mutation changed a comparison from '<' to '<=', this point
         // should still get removed
         boundaryPoint = new Point("BoundaryPoint", 511, 511);
         internalNode.insert(boundaryPoint, 0, 0, 1024);
-        assertTrue(internalNode.remove(boundaryPoint, 0, 0, 1024));
+        assertSame(FlyweightNode.getInstance(), internalNode.remove(
+            boundaryPoint, 0, 0, 1024));
     }
 
 
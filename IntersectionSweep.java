@@ -0,0 +1,241 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.PriorityQueue;
+import java.util.TreeSet;
+
+/**
+ * Finds every pair of intersecting rectangles with a sweep over the x axis.
+ * The rectangles are visited in order of their left edge while an active set
+ * holds the ones whose x-range still covers the sweep position. Each new
+ * rectangle is only compared against active rectangles whose y-range
+ * overlaps its own, which are found through two indexes on the active set:
+ * <ul>
+ * <li>a sorted set of top edges, for active rectangles that start inside
+ * the new rectangle's y-range, and</li>
+ * <li>a segment tree over the world's y axis, for active rectangles that
+ * start above the new one and reach into it.</li>
+ * </ul>
+ * This reports all k pairs in O((n + k) log n) time. The intersect rule is
+ * the same as Rectangle.intersect, so rectangles that only touch along an
+ * edge are not reported.
+ *
+ * @author kinjalpandey, architg03
+ * @version 02/28/2024
+ */
+public class IntersectionSweep {
+
+    // the height of the world, every rectangle lies in [0, worldSize)
+    private final int worldSize;
+    // number of leaves in the segment tree, a power of two >= worldSize
+    private final int leaves;
+
+    // the rectangles being swept
+    private Rectangle[] rects;
+    // active rectangles stored at the segment tree nodes covering them
+    private HashSet<Integer>[] stabbing;
+    // active rectangles ordered by top edge, then by position
+    private TreeSet<Long> byTop;
+
+    /**
+     * Creates a sweep for rectangles inside a square world of the given
+     * size.
+     *
+     * @param worldSize
+     *            the width and height of the world
+     */
+    public IntersectionSweep(int worldSize) {
+        this.worldSize = worldSize;
+        int n = 1;
+        while (n < worldSize) {
+            n *= 2;
+        }
+        leaves = n;
+    }
+
+
+    /**
+     * Finds all intersecting pairs among the rectangles. Each pair is
+     * returned once as {i, j} with i &lt; j, where i and j are positions in
+     * the list passed in, and the pairs are sorted by i and then by j.
+     *
+     * @param list
+     *            the rectangles to check
+     * @return the intersecting pairs as index pairs
+     */
+    @SuppressWarnings("unchecked")
+    public ArrayList<int[]> findPairs(ArrayList<Rectangle> list) {
+        int n = list.size();
+        rects = list.toArray(new Rectangle[n]);
+        stabbing = (HashSet<Integer>[]) new HashSet<?>[2 * leaves];
+        byTop = new TreeSet<>();
+
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Integer.compare(rects[a]
+            .getxCoordinate(), rects[b].getxCoordinate()));
+        PriorityQueue<Integer> byRight = new PriorityQueue<>((a, b) -> Integer
+            .compare(right(a), right(b)));
+
+        long[] pairs = new long[16];
+        int count = 0;
+        for (Integer cur : order) {
+            int left = rects[cur].getxCoordinate();
+            while (!byRight.isEmpty() && right(byRight.peek()) <= left) {
+                deactivate(byRight.poll());
+            }
+            int top = rects[cur].getyCoordinate();
+            int bottom = bottom(cur);
+
+            // active rectangles whose top edge lies inside [top, bottom)
+            ArrayList<Integer> hits = new ArrayList<>();
+            for (long key : byTop.subSet(topKey(top, 0), topKey(bottom, 0))) {
+                hits.add((int)key);
+            }
+            // active rectangles that start above top and cover it
+            if (top >= 0 && top < worldSize) {
+                int node = leaves + top;
+                while (node >= 1) {
+                    if (stabbing[node] != null) {
+                        for (Integer other : stabbing[node]) {
+                            if (rects[other].getyCoordinate() < top) {
+                                hits.add(other);
+                            }
+                        }
+                    }
+                    node /= 2;
+                }
+            }
+
+            for (Integer other : hits) {
+                if (count == pairs.length) {
+                    pairs = Arrays.copyOf(pairs, count * 2);
+                }
+                int a = Math.min(cur, other);
+                int b = Math.max(cur, other);
+                pairs[count++] = ((long)a << 32) | b;
+            }
+            byRight.add(cur);
+            activate(cur);
+        }
+
+        Arrays.sort(pairs, 0, count);
+        ArrayList<int[]> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(new int[] { (int)(pairs[i] >>> 32), (int)pairs[i] });
+        }
+        rects = null;
+        stabbing = null;
+        byTop = null;
+        return result;
+    }
+
+
+    /**
+     * Adds a rectangle to the active set.
+     *
+     * @param i
+     *            position of the rectangle
+     */
+    private void activate(int i) {
+        byTop.add(topKey(rects[i].getyCoordinate(), i));
+        update(i, true);
+    }
+
+
+    /**
+     * Removes a rectangle from the active set.
+     *
+     * @param i
+     *            position of the rectangle
+     */
+    private void deactivate(int i) {
+        byTop.remove(topKey(rects[i].getyCoordinate(), i));
+        update(i, false);
+    }
+
+
+    /**
+     * Adds or removes a rectangle at the canonical segment tree nodes that
+     * cover its y-range.
+     *
+     * @param i
+     *            position of the rectangle
+     * @param add
+     *            true to add, false to remove
+     */
+    private void update(int i, boolean add) {
+        int lo = Math.max(rects[i].getyCoordinate(), 0) + leaves;
+        int hi = Math.min(bottom(i), worldSize) + leaves;
+        while (lo < hi) {
+            if ((lo & 1) == 1) {
+                updateNode(lo++, i, add);
+            }
+            if ((hi & 1) == 1) {
+                updateNode(--hi, i, add);
+            }
+            lo /= 2;
+            hi /= 2;
+        }
+    }
+
+
+    /**
+     * Adds or removes a rectangle at one segment tree node.
+     *
+     * @param node
+     *            the node
+     * @param i
+     *            position of the rectangle
+     * @param add
+     *            true to add, false to remove
+     */
+    private void updateNode(int node, int i, boolean add) {
+        if (add) {
+            if (stabbing[node] == null) {
+                stabbing[node] = new HashSet<>();
+            }
+            stabbing[node].add(i);
+        }
+        else {
+            stabbing[node].remove(i);
+        }
+    }
+
+
+    /**
+     * Packs a top edge and a position into one key of the byTop set, so the
+     * set sorts by top edge and a range of top edges is a single subSet.
+     *
+     * @param y
+     *            the top edge
+     * @param i
+     *            position of the rectangle
+     * @return the packed key
+     */
+    private static long topKey(int y, int i) {
+        return ((long)y << 32) | i;
+    }
+
+
+    /**
+     * @param i
+     *            position of the rectangle
+     * @return the x-coordinate just past the rectangle's right edge
+     */
+    private int right(int i) {
+        return rects[i].getxCoordinate() + rects[i].getWidth();
+    }
+
+
+    /**
+     * @param i
+     *            position of the rectangle
+     * @return the y-coordinate just past the rectangle's bottom edge
+     */
+    private int bottom(int i) {
+        return rects[i].getyCoordinate() + rects[i].getHeight();
+    }
+}
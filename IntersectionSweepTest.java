@@ -0,0 +1,68 @@
+import java.util.ArrayList;
+import student.TestCase;
+
+/**
+ * Tests the IntersectionSweep class used by the intersections command.
+ *
+ * @author kinjalpandey, architg03
+ * @version 02/28/2024
+ */
+public class IntersectionSweepTest extends TestCase {
+
+    private IntersectionSweep sweep;
+    private ArrayList<Rectangle> rects;
+
+    /**
+     * Sets up the test cases
+     */
+    public void setUp() {
+        sweep = new IntersectionSweep(1024);
+        rects = new ArrayList<>();
+    }
+
+
+    /**
+     * Testing findPairs()
+     * should report each overlapping pair once, ordered by position
+     */
+    public void testFindPairs() {
+        rects.add(new Rectangle(10, 10, 15, 15));
+        rects.add(new Rectangle(11, 11, 5, 5));
+        rects.add(new Rectangle(0, 0, 1000, 10));
+        rects.add(new Rectangle(0, 0, 10, 1000));
+        rects.add(new Rectangle(0, 500, 5, 5));
+        ArrayList<int[]> pairs = sweep.findPairs(rects);
+        assertEquals(3, pairs.size());
+        assertEquals(0, pairs.get(0)[0]);
+        assertEquals(1, pairs.get(0)[1]);
+        assertEquals(2, pairs.get(1)[0]);
+        assertEquals(3, pairs.get(1)[1]);
+        assertEquals(3, pairs.get(2)[0]);
+        assertEquals(4, pairs.get(2)[1]);
+    }
+
+
+    /**
+     * Testing findPairs()
+     * rectangles sharing only an edge do not intersect
+     */
+    public void testFindPairsTouching() {
+        rects.add(new Rectangle(0, 0, 10, 10));
+        rects.add(new Rectangle(10, 0, 10, 10));
+        rects.add(new Rectangle(0, 10, 10, 10));
+        assertTrue(sweep.findPairs(rects).isEmpty());
+        assertTrue(sweep.findPairs(new ArrayList<Rectangle>()).isEmpty());
+    }
+
+
+    /**
+     * Testing findPairs()
+     * identical rectangles intersect each other
+     */
+    public void testFindPairsIdentical() {
+        rects.add(new Rectangle(5, 5, 10, 10));
+        rects.add(new Rectangle(5, 5, 10, 10));
+        rects.add(new Rectangle(5, 5, 10, 10));
+        assertEquals(3, sweep.findPairs(rects).size());
+    }
+}
@@ -1,9 +1,36 @@
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.function.Consumer;
 
 public class LeafNode extends QuadTreeNode {
-    private static final int MAX_POINTS = 1;
+    /**
+     * The number of points a leaf holds before it splits, unless a tree is
+     * built with its own capacity. A leaf of three keeps clustered data
+     * shallow while still splitting often enough that a region search only
+     * rechecks a few points per leaf.
+     */
+    public static final int DEFAULT_CAPACITY = 3;
+
+    private final int capacity;
     private ArrayList<Point> points = new ArrayList<>();
 
+    /**
+     * Creates an empty leaf with the default capacity.
+     */
+    public LeafNode() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates an empty leaf that splits once it holds more than the given
+     * number of points.
+     * 
+     * @param capacity The number of points the leaf holds before splitting.
+     */
+    public LeafNode(int capacity) {
+        this.capacity = capacity;
+    }
+
     /**
      * Gets all points stored in this leaf node.
      * 
@@ -13,9 +40,22 @@ public class LeafNode extends QuadTreeNode {
         return new ArrayList<>(points);
     }
 
+    /**
+     * Checks whether this leaf holds the given point, without copying the
+     * points as getPoints does.
+     * 
+     * @param point The point to look for.
+     * @return true if the point is in this leaf.
+     */
+    public boolean contains(Point point) {
+        return points.contains(point);
+    }
+
     /**
      * Inserts a point into the QuadTree.
-     * If the node is full, it creates a new InternalNode and reinserts all points.
+     * If the node goes over capacity, it creates a new InternalNode and
+     * reinserts all points. A leaf whose points all share the same
+     * coordinates never splits, since splitting could not separate them.
      * 
      * @param point The point to insert.
      * @param x     The x-coordinate of the node.
@@ -32,22 +72,35 @@ public class LeafNode extends QuadTreeNode {
             }
         }
 
-        if (points.size() < MAX_POINTS || (points.size() == MAX_POINTS && points.contains(point))) {
-            points.add(point);
+        points.add(point);
+        if (points.size() <= capacity || size <= 1 || sameLocation()) {
             return this; // Return this leaf node if no splitting is needed.
         }
 
         // If the node is full, create a new internal node and reinsert all points.
-        InternalNode internalNode = new InternalNode();
+        InternalNode internalNode = new InternalNode(capacity);
         for (Point existingPoint : points) {
             // Reinsert existing points into the new internal node.
             internalNode = (InternalNode) internalNode.insert(existingPoint, x, y, size);
         }
-        // Add the new point to the list after reinserting.
-        internalNode = (InternalNode) internalNode.insert(point, x, y, size);
         return internalNode; // Return the new internal node after splitting.
     }
 
+    /**
+     * Checks whether every point in this leaf has the same coordinates.
+     * 
+     * @return true if all points share one location.
+     */
+    public boolean sameLocation() {
+        Point first = points.get(0);
+        for (Point p : points) {
+            if (p.getX() != first.getX() || p.getY() != first.getY()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     /**
      * Removes a point from the QuadTree.
      * 
@@ -55,14 +108,36 @@ public class LeafNode extends QuadTreeNode {
      * @param x     The x-coordinate of the node.
      * @param y     The y-coordinate of the node.
      * @param size  The size of the node.
-     * @return true if the point was removed, false otherwise.
+     * @return FlyweightNode if the leaf is empty after the removal, or this
+     *         leaf otherwise.
      */
     @Override
-    public boolean remove(Point point, int x, int y, int size) {
-        if (!points.contains(point)) {
-            return false;
+    public QuadTreeNode remove(Point point, int x, int y, int size) {
+        points.remove(point);
+        if (points.isEmpty()) {
+            return FlyweightNode.getInstance();
         }
-        return points.remove(point);
+        return this;
+    }
+
+    /**
+     * Returns the number of points stored in this leaf node.
+     * 
+     * @return The number of points.
+     */
+    public int size() {
+        return points.size();
+    }
+
+    /**
+     * Adds all points of another leaf to this one, without checking whether
+     * this leaf should split. Used when an internal node merges its
+     * quadrants back into a single leaf.
+     * 
+     * @param other The leaf whose points are added.
+     */
+    public void absorb(LeafNode other) {
+        points.addAll(other.points);
     }
 
     /**
@@ -92,18 +167,68 @@ public class LeafNode extends QuadTreeNode {
      * @param nodeX    The x-coordinate of the node.
      * @param nodeY    The y-coordinate of the node.
      * @param nodeSize The size of the node.
-     * @return A list of points that are within the specified region.
+     * @param sink     Receives every point within the specified region.
      */
     @Override
-    public ArrayList<Point> regionSearch(int queryX, int queryY, int width, int height, int nodeX, int nodeY,
-            int nodeSize) {
-        ArrayList<Point> foundPoints = new ArrayList<>();
-        for (Point p : points) {
+    public void regionSearch(int queryX, int queryY, int width, int height, int nodeX, int nodeY,
+            int nodeSize, Consumer<Point> sink) {
+        if (covers(queryX, queryY, width, height, nodeX, nodeY, nodeSize)) {
+            reportAll(sink);
+            return;
+        }
+        for (int i = 0; i < points.size(); i++) {
+            Point p = points.get(i);
             if (p.getX() >= queryX && p.getX() <= queryX + width && p.getY() >= queryY && p.getY() <= queryY + height) {
-                foundPoints.add(p);
+                sink.accept(p);
+            }
+        }
+    }
+
+    /**
+     * Passes every point in this leaf to the sink.
+     * 
+     * @param sink Receives every point in this leaf.
+     */
+    @Override
+    public void reportAll(Consumer<Point> sink) {
+        for (int i = 0; i < points.size(); i++) {
+            sink.accept(points.get(i));
+        }
+    }
+
+    /**
+     * Finds the locations in this leaf that hold more than one point. The
+     * points are counted by coordinates in a single pass, and the first point
+     * at each duplicated location is reported once.
+     * 
+     * @param duplicates The list the duplicated locations are added to.
+     */
+    @Override
+    public void findDuplicates(ArrayList<Point> duplicates) {
+        if (points.size() < 2) {
+            return;
+        }
+        HashMap<Long, Integer> counts = new HashMap<>();
+        for (Point p : points) {
+            counts.merge(locationKey(p), 1, Integer::sum);
+        }
+        for (Point p : points) {
+            // remove the entry so each location is only reported once
+            Integer count = counts.remove(locationKey(p));
+            if (count != null && count > 1) {
+                duplicates.add(p);
             }
         }
-        return foundPoints;
+    }
+
+    /**
+     * Packs the coordinates of a point into a single hash key.
+     * 
+     * @param p The point.
+     * @return The key for the point's location.
+     */
+    private static long locationKey(Point p) {
+        return ((long) p.getX() << 32) | (p.getY() & 0xffffffffL);
     }
 
     /**
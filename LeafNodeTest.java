@@ -34,8 +34,8 @@ public class LeafNodeTest extends TestCase {
      * Tests inserting points into the leaf node.
      */
     public void testInsert() {
-        // Insert a single point
-        QuadTreeNode resultNode = leafNode.insert(point1, 0, 0, 1024);
+        // Insert a single point into a leaf that holds one point
+        QuadTreeNode resultNode = new LeafNode(1).insert(point1, 0, 0, 1024);
         assertTrue("LeafNode should remain after inserting one point",
             resultNode instanceof LeafNode);
 
@@ -51,15 +51,31 @@ public class LeafNodeTest extends TestCase {
      * Tests removing points from the leaf node.
      */
     public void testRemove() {
-        // Insert a point and remove it
         leafNode.insert(point1, 0, 0, 1024);
-        boolean removed = leafNode.remove(point1, 0, 0, 1024);
-        assertTrue("Point should be removed successfully", removed);
+        leafNode.insert(point3, 0, 0, 1024);
 
         // Attempt to remove a non-existent point
-        removed = leafNode.remove(point2, 0, 0, 1024);
-        assertFalse("Attempt to remove a non-existent point should fail",
-            removed);
+        assertSame("Removing a non-existent point should keep the leaf",
+            leafNode, leafNode.remove(point2, 0, 0, 1024));
+        assertEquals(2, leafNode.size());
+
+        // Remove the points one at a time
+        assertSame(leafNode, leafNode.remove(point1, 0, 0, 1024));
+        assertEquals(1, leafNode.size());
+        assertSame("An emptied leaf should be replaced by the flyweight",
+            FlyweightNode.getInstance(), leafNode.remove(point3, 0, 0, 1024));
+    }
+
+
+    /**
+     * Tests checking whether the leaf holds a point.
+     */
+    public void testContains() {
+        leafNode.insert(point1, 0, 0, 1024);
+        assertTrue(leafNode.contains(point1));
+        // a point with the same name elsewhere is a different point
+        assertFalse(leafNode.contains(point3));
+        assertFalse(leafNode.contains(point2));
     }
 
 
@@ -94,4 +110,27 @@ public class LeafNodeTest extends TestCase {
         assertTrue("No points should be found in a non-overlapping region",
             foundPoints.isEmpty());
     }
+
+
+    /**
+     * Tests that a leaf only splits once it goes over its capacity, and
+     * never splits when all of its points share one location.
+     */
+    public void testInsertCapacity() {
+        QuadTreeNode resultNode = leafNode;
+        for (int i = 0; i < LeafNode.DEFAULT_CAPACITY; i++) {
+            resultNode = resultNode.insert(new Point("p" + i, i, i), 0, 0,
+                1024);
+        }
+        assertTrue(resultNode instanceof LeafNode);
+        resultNode = resultNode.insert(point2, 0, 0, 1024);
+        assertTrue(resultNode instanceof InternalNode);
+
+        QuadTreeNode stacked = new LeafNode(1);
+        for (int i = 0; i < 10; i++) {
+            stacked = stacked.insert(new Point("s" + i, 5, 5), 0, 0, 1024);
+        }
+        assertTrue(stacked instanceof LeafNode);
+        assertEquals(10, ((LeafNode) stacked).getPoints().size());
+    }
 }
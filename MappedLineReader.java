@@ -0,0 +1,257 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+/**
+ * Reads a command file through a memory map instead of a Scanner, handing
+ * each non-blank line, trimmed, to a handler. A line made of ASCII bytes is
+ * handed over as a view into the mapped file rather than as a String, so no
+ * bytes are copied and nothing is decoded until the handler asks. A line
+ * with other bytes is decoded as UTF-8 into a String first, so the handler
+ * always sees the right characters.
+ *
+ * The view is reused for the next line, so a handler that keeps a line has
+ * to call toString on it. Lines may end in \n, \r\n or \r, and the last
+ * line needs no ending. The file is mapped a window at a time, so files
+ * larger than one mapping can hold are read too; a line that runs past the
+ * end of a window is read again from the start of the next one.
+ *
+ * @author kinjalpandey, architg03
+ * @version 02/28/2024
+ */
+public class MappedLineReader {
+
+    // bytes mapped at a time
+    private static final int WINDOW = 1 << 26;
+
+    private MappedLineReader() {
+        // only static methods
+    }
+
+
+    /**
+     * Hands every non-blank line of a file, trimmed, to a handler.
+     *
+     * @param file
+     *            the file to read
+     * @param handler
+     *            receives each line
+     * @throws IOException
+     *             if the file cannot be opened or read; a missing file
+     *             throws FileNotFoundException, as a Scanner would
+     */
+    public static void forEachLine(File file, Consumer<CharSequence> handler)
+        throws IOException {
+        forEachLine(file, WINDOW, handler);
+    }
+
+
+    /**
+     * Hands every non-blank line of a file, trimmed, to a handler, mapping
+     * the given number of bytes at a time.
+     *
+     * @param file
+     *            the file to read
+     * @param window
+     *            the number of bytes to map at a time
+     * @param handler
+     *            receives each line
+     * @throws IOException
+     *             if the file cannot be opened or read
+     */
+    static void forEachLine(
+        File file,
+        int window,
+        Consumer<CharSequence> handler)
+        throws IOException {
+        try (RandomAccessFile in = new RandomAccessFile(file, "r");
+            FileChannel channel = in.getChannel()) {
+            long size = channel.size();
+            long base = 0;
+            int length = window;
+            Slice slice = new Slice();
+            while (base < size) {
+                int mapped = (int)Math.min(length, size - base);
+                boolean last = base + mapped == size;
+                MappedByteBuffer buf = channel.map(
+                    FileChannel.MapMode.READ_ONLY, base, mapped);
+                int done = readLines(buf, mapped, last, slice, handler);
+                if (done == 0 && !last) {
+                    // one line fills the whole window, so map more at once
+                    if (length == Integer.MAX_VALUE) {
+                        throw new IOException("Line too long at byte "
+                            + base);
+                    }
+                    length = (int)Math.min(Integer.MAX_VALUE, 2L * length);
+                }
+                else {
+                    base += done;
+                    length = window;
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Hands over the complete lines in a mapped window.
+     *
+     * @param buf
+     *            the window
+     * @param mapped
+     *            the number of bytes in the window
+     * @param last
+     *            true if the window reaches the end of the file, so the
+     *            bytes after the last line ending are a line too
+     * @param slice
+     *            the view to hand lines over through
+     * @param handler
+     *            receives each line
+     * @return the number of bytes used; the rest belong to a line that
+     *         continues past the window
+     */
+    private static int readLines(
+        MappedByteBuffer buf,
+        int mapped,
+        boolean last,
+        Slice slice,
+        Consumer<CharSequence> handler) {
+        int start = 0;
+        boolean ascii = true;
+        for (int i = 0; i < mapped; i++) {
+            byte b = buf.get(i);
+            if (b == '\n' || b == '\r') {
+                if (b == '\r' && i + 1 == mapped && !last) {
+                    // the \n of a \r\n may be in the next window
+                    return start;
+                }
+                emit(buf, start, i, ascii, slice, handler);
+                if (b == '\r' && i + 1 < mapped && buf.get(i + 1) == '\n') {
+                    i++;
+                }
+                start = i + 1;
+                ascii = true;
+            }
+            else if (b < 0) {
+                ascii = false;
+            }
+        }
+        if (last) {
+            emit(buf, start, mapped, ascii, slice, handler);
+            return mapped;
+        }
+        return start;
+    }
+
+
+    /**
+     * Trims a line and hands it over unless it is blank.
+     *
+     * @param buf
+     *            the window holding the line
+     * @param start
+     *            where the line starts
+     * @param end
+     *            where the line ends, not counting its ending
+     * @param ascii
+     *            true if every byte of the line is ASCII
+     * @param slice
+     *            the view to hand the line over through
+     * @param handler
+     *            receives the line
+     */
+    private static void emit(
+        MappedByteBuffer buf,
+        int start,
+        int end,
+        boolean ascii,
+        Slice slice,
+        Consumer<CharSequence> handler) {
+        // String.trim drops every character up to and including a space
+        while (start < end && (buf.get(start) & 0xFF) <= ' ') {
+            start++;
+        }
+        while (end > start && (buf.get(end - 1) & 0xFF) <= ' ') {
+            end--;
+        }
+        if (start == end) {
+            return;
+        }
+        slice.set(buf, start, end);
+        handler.accept(ascii ? slice : slice.decode());
+    }
+
+
+    /**
+     * A view of ASCII bytes in a mapped window as characters.
+     */
+    private static class Slice implements CharSequence {
+        private MappedByteBuffer buf;
+        private int start;
+        private int end;
+
+        /**
+         * Points the view at a range of a window.
+         *
+         * @param window
+         *            the window
+         * @param from
+         *            the first byte
+         * @param to
+         *            one past the last byte
+         */
+        private void set(MappedByteBuffer window, int from, int to) {
+            buf = window;
+            start = from;
+            end = to;
+        }
+
+
+        @Override
+        public int length() {
+            return end - start;
+        }
+
+
+        @Override
+        public char charAt(int index) {
+            if (index < 0 || index >= end - start) {
+                throw new IndexOutOfBoundsException("Index: " + index);
+            }
+            return (char)(buf.get(start + index) & 0xFF);
+        }
+
+
+        @Override
+        public CharSequence subSequence(int from, int to) {
+            if (from < 0 || from > to || to > end - start) {
+                throw new IndexOutOfBoundsException("Range: " + from + " to "
+                    + to);
+            }
+            byte[] bytes = new byte[to - from];
+            buf.get(start + from, bytes);
+            // the view only ever holds ASCII bytes
+            return new String(bytes, StandardCharsets.ISO_8859_1);
+        }
+
+
+        /**
+         * @return the bytes in view decoded as UTF-8
+         */
+        private String decode() {
+            byte[] bytes = new byte[end - start];
+            buf.get(start, bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+
+        @Override
+        public String toString() {
+            return decode();
+        }
+    }
+}
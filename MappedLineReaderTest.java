@@ -0,0 +1,147 @@
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import student.TestCase;
+
+/**
+ * Tests the MappedLineReader class against what a Scanner loop that trims
+ * lines and skips blank ones would read.
+ *
+ * @author kinjalpandey, architg03
+ * @version 02/28/2024
+ */
+public class MappedLineReaderTest extends TestCase {
+
+    private File file;
+    private ArrayList<String> lines;
+
+    /**
+     * Sets up the test cases
+     *
+     * @throws IOException
+     *             if the temporary file cannot be made
+     */
+    public void setUp() throws IOException {
+        file = File.createTempFile("commands", ".txt");
+        lines = new ArrayList<>();
+    }
+
+
+    /**
+     * Clears for new test
+     */
+    public void tearDown() {
+        file.delete();
+    }
+
+
+    /**
+     * Testing forEachLine()
+     * every kind of line ending, blank lines, padding and a last line with
+     * no ending
+     *
+     * @throws IOException
+     *             if the file cannot be read
+     */
+    public void testLineEndings() throws IOException {
+        write("insert a 1 1 1 1\r\n\r\n  search a \n\t\nremove a\rdump");
+        MappedLineReader.forEachLine(file, line -> lines.add(line
+            .toString()));
+        assertEquals(4, lines.size());
+        assertEquals("insert a 1 1 1 1", lines.get(0));
+        assertEquals("search a", lines.get(1));
+        assertEquals("remove a", lines.get(2));
+        assertEquals("dump", lines.get(3));
+    }
+
+
+    /**
+     * Testing forEachLine()
+     * lines cut by the end of a window, including a \r\n cut in half and
+     * a line longer than a window, should come out whole
+     *
+     * @throws IOException
+     *             if the file cannot be read
+     */
+    public void testSmallWindows() throws IOException {
+        StringBuilder text = new StringBuilder();
+        ArrayList<String> expected = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            String line = "insert r" + i + " " + i + " 2 3 4";
+            if (i % 7 == 0) {
+                line = line + " " + line + " " + line;
+            }
+            expected.add(line);
+            text.append(line).append(i % 2 == 0 ? "\r\n" : "\n");
+        }
+        write(text.toString());
+        for (int window = 1; window <= 17; window++) {
+            lines.clear();
+            MappedLineReader.forEachLine(file, window, line -> lines.add(line
+                .toString()));
+            assertEquals(expected, lines);
+        }
+    }
+
+
+    /**
+     * Testing forEachLine()
+     * ASCII lines should be views that can be read without toString, and
+     * other lines should be decoded as UTF-8
+     *
+     * @throws IOException
+     *             if the file cannot be read
+     */
+    public void testCharacters() throws IOException {
+        write("insert caf\u00e9 1 1 1 1\nsearch x\n");
+        MappedLineReader.forEachLine(file, line -> {
+            lines.add(line.length() + ":" + line.charAt(line.length() - 1));
+            lines.add(line.toString());
+        });
+        assertEquals("19:1", lines.get(0));
+        assertEquals("insert caf\u00e9 1 1 1 1", lines.get(1));
+        assertEquals("8:x", lines.get(2));
+        assertEquals("search x", lines.get(3));
+    }
+
+
+    /**
+     * Testing forEachLine()
+     * an empty file has no lines, and a missing file throws the same
+     * exception a Scanner would
+     *
+     * @throws IOException
+     *             if the file cannot be read
+     */
+    public void testEmptyAndMissing() throws IOException {
+        MappedLineReader.forEachLine(file, line -> lines.add(line
+            .toString()));
+        assertTrue(lines.isEmpty());
+        file.delete();
+        Exception thrown = null;
+        try {
+            MappedLineReader.forEachLine(file, line -> lines.add(line
+                .toString()));
+        }
+        catch (FileNotFoundException e) {
+            thrown = e;
+        }
+        assertNotNull(thrown);
+    }
+
+
+    /**
+     * Writes text to the test file as UTF-8.
+     *
+     * @param text
+     *            the text
+     * @throws IOException
+     *             if the file cannot be written
+     */
+    private void write(String text) throws IOException {
+        Files.write(file.toPath(), text.getBytes(StandardCharsets.UTF_8));
+    }
+}
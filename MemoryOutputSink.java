@@ -0,0 +1,61 @@
+/**
+ * Keeps everything printed in memory, so a test can check a database's
+ * output without redirecting System.out. Lines end in \n on every platform.
+ *
+ * @author kinjalpandey, architg03
+ * @version 02/28/2024
+ */
+public class MemoryOutputSink implements OutputSink {
+
+    private StringBuilder history = new StringBuilder();
+    private int commands;
+
+    @Override
+    public void print(Object text) {
+        history.append(text);
+    }
+
+
+    @Override
+    public void println(Object line) {
+        history.append(line).append('\n');
+    }
+
+
+    @Override
+    public void endCommand() {
+        commands++;
+    }
+
+
+    @Override
+    public void flush() {
+        // nothing is held back
+    }
+
+
+    /**
+     * @return everything printed since the sink was made or last cleared
+     */
+    public String getHistory() {
+        return history.toString();
+    }
+
+
+    /**
+     * @return the number of command ends marked since the sink was made or
+     *         last cleared
+     */
+    public int getCommands() {
+        return commands;
+    }
+
+
+    /**
+     * Forgets everything printed so far.
+     */
+    public void clearHistory() {
+        history.setLength(0);
+        commands = 0;
+    }
+}
@@ -0,0 +1,94 @@
+/**
+ * Where the databases and data structures print their results. Printing
+ * through a sink rather than straight to System.out lets a driver buffer a
+ * whole run of commands, a test read back what was printed, and a benchmark
+ * throw the output away.
+ *
+ * The command processors call endCommand after every command, which is the
+ * only place a buffering sink has to write its output out; flush writes
+ * everything that is still held back and is called once the last command
+ * has run.
+ *
+ * @author kinjalpandey, architg03
+ * @version 02/28/2024
+ */
+public interface OutputSink {
+
+    /**
+     * Prints each line straight to System.out as it is printed, which is
+     * what every class did before sinks. System.out is looked up on every
+     * line, so output still goes wherever it has been redirected to.
+     */
+    OutputSink CONSOLE = new OutputSink() {
+        @Override
+        public void print(Object text) {
+            System.out.print(text);
+        }
+
+
+        @Override
+        public void println(Object line) {
+            System.out.println(line);
+        }
+
+
+        @Override
+        public void flush() {
+            System.out.flush();
+        }
+    };
+
+    /**
+     * Throws everything away.
+     */
+    OutputSink DISCARD = new OutputSink() {
+        @Override
+        public void print(Object text) {
+            // dropped
+        }
+
+
+        @Override
+        public void println(Object line) {
+            // dropped
+        }
+
+
+        @Override
+        public void flush() {
+            // nothing held back
+        }
+    };
+
+    /**
+     * Prints text without ending the line.
+     *
+     * @param text
+     *            the text, printed as String.valueOf would show it
+     */
+    void print(Object text);
+
+
+    /**
+     * Prints a line.
+     *
+     * @param line
+     *            the line, printed as String.valueOf would show it
+     */
+    void println(Object line);
+
+
+    /**
+     * Marks the end of a command's output. A sink that holds output back
+     * may write it out here; by default nothing happens.
+     */
+    default void endCommand() {
+        // nothing held back
+    }
+
+
+    /**
+     * Writes out everything held back.
+     */
+    void flush();
+}
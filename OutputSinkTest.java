@@ -0,0 +1,98 @@
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import student.TestCase;
+
+/**
+ * Tests the OutputSink implementations and that the databases print
+ * through the sink they are given.
+ *
+ * @author kinjalpandey, architg03
+ * @version 02/28/2024
+ */
+public class OutputSinkTest extends TestCase {
+
+    private ByteArrayOutputStream bytes;
+    private PrintStream stream;
+
+    /**
+     * Sets up the test cases
+     */
+    public void setUp() {
+        bytes = new ByteArrayOutputStream();
+        stream = new PrintStream(bytes, true);
+    }
+
+
+    /**
+     * Testing BufferedOutputSink
+     * output is held back until a command ends with a full chunk, or until
+     * flush
+     */
+    public void testBuffered() {
+        String nl = System.lineSeparator();
+        BufferedOutputSink out = new BufferedOutputSink(stream, 10);
+        out.println("abc");
+        out.print("de");
+        out.endCommand();
+        assertEquals(0, bytes.size());
+        out.println("fghij");
+        assertEquals(0, bytes.size());
+        out.endCommand();
+        assertEquals("abc" + nl + "defghij" + nl, bytes.toString());
+
+        // one command printing more than eight chunks is written as it goes
+        bytes.reset();
+        for (int i = 0; i < 20; i++) {
+            out.println("line " + i);
+        }
+        assertTrue(bytes.size() > 0);
+        out.flush();
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 20; i++) {
+            expected.append("line " + i).append(nl);
+        }
+        assertEquals(expected.toString(), bytes.toString());
+    }
+
+
+    /**
+     * Testing MemoryOutputSink and DISCARD with the command processors
+     * nothing reaches System.out, and every command is marked
+     */
+    public void testProcessors() {
+        MemoryOutputSink out = new MemoryOutputSink();
+        CommandProcessor rects = new CommandProcessor(out);
+        rects.processor("insert a 1 0 2 4");
+        rects.processor("search a");
+        rects.processor("search");
+        assertEquals("Rectangle inserted: (a, 1, 0, 2, 4)\n"
+            + "Rectangles found:\n(a, 1, 0, 2, 4)\n"
+            + "Unrecognized command: search\n", out.getHistory());
+        assertEquals(3, out.getCommands());
+
+        out.clearHistory();
+        PointsCommandProcessor points = new PointsCommandProcessor(out);
+        points.processCommand("insert p 1 2");
+        points.processCommand("search p");
+        points.processCommand("dump");
+        String history = out.getHistory();
+        assertTrue(history.startsWith("Point inserted: p 1 2\n"
+            + "Search results for 'p':\np 1 2\nSkipList dump:\n"));
+        assertTrue(history.contains("QuadTree Dump:\n"));
+        assertEquals(3, out.getCommands());
+
+        new CommandProcessor(OutputSink.DISCARD).processor("dump");
+        assertEquals("", systemOut().getHistory());
+    }
+
+
+    /**
+     * Testing CONSOLE
+     * prints to System.out as it goes
+     */
+    public void testConsole() {
+        new SkipList<String, Integer>().dump();
+        assertEquals("SkipList dump:\nNode has depth 1, Value null\n"
+            + "SkipList size is: 0\n", systemOut().getHistory());
+    }
+}
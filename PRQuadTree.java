@@ -1,8 +1,16 @@
 import java.util.ArrayList;
+import java.util.function.Consumer;
 
 public class PRQuadTree {
     private QuadTreeNode root;
     private final int size;
+    private final int leafCapacity;
+    // every point in the tree by name, so name lookups skip the tree walk
+    private final SkipList<String, Point> names;
+    // room for the descent of a remove, reused so removes do not allocate
+    private final InternalNode[] removePath =
+            new InternalNode[InternalNode.MAX_DEPTH];
+    private final int[] removeQuadrants = new int[InternalNode.MAX_DEPTH];
 
     /**
      * Constructs a PRQuadTree with the specified size.
@@ -10,8 +18,37 @@ public class PRQuadTree {
      * @param size the size of the QuadTree
      */
     public PRQuadTree(int size) {
+        this(size, LeafNode.DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs a PRQuadTree with the specified size whose leaves split once
+     * they hold more than leafCapacity points at different locations.
+     * 
+     * @param size         the size of the QuadTree
+     * @param leafCapacity the number of points a leaf holds before splitting
+     */
+    public PRQuadTree(int size, int leafCapacity) {
+        this(size, leafCapacity, new SkipList<>());
+    }
+
+    /**
+     * Constructs a PRQuadTree that keeps its name index in the given
+     * SkipList. The tree inserts and removes the list's pairs itself, so a
+     * caller that shares its own SkipList must stop updating it directly.
+     * 
+     * @param size         the size of the QuadTree
+     * @param leafCapacity the number of points a leaf holds before splitting
+     * @param names        the SkipList used as the name index
+     */
+    public PRQuadTree(int size, int leafCapacity, SkipList<String, Point> names) {
+        if (leafCapacity < 1) {
+            throw new IllegalArgumentException("Leaf capacity must be positive");
+        }
         this.root = FlyweightNode.getInstance();
         this.size = size;
+        this.leafCapacity = leafCapacity;
+        this.names = names;
     }
 
     /**
@@ -20,7 +57,42 @@ public class PRQuadTree {
      * @param point the point to be inserted
      */
     public void insert(Point point) {
-        root = root.insert(point, 0, 0, size);
+        if (contains(point)) {
+            return;
+        }
+        insertIntoTree(point);
+        names.insert(new KVPair<>(point.getName(), point));
+    }
+
+    /**
+     * Inserts a batch of points, leaving the QuadTree as calling insert on
+     * each of them would. The name index is loaded in one go, which is a
+     * single linear pass when it starts out empty and the names are sorted.
+     * 
+     * @param points the points to be inserted, in insertion order
+     */
+    public void insertAll(ArrayList<Point> points) {
+        ArrayList<KVPair<String, Point>> pairs = new ArrayList<>(points.size());
+        for (Point point : points) {
+            if (!contains(point)) {
+                insertIntoTree(point);
+                pairs.add(new KVPair<>(point.getName(), point));
+            }
+        }
+        names.insertAll(pairs);
+    }
+
+    /**
+     * Inserts a point into the tree without touching the name index.
+     * 
+     * @param point the point to be inserted
+     */
+    private void insertIntoTree(Point point) {
+        if (root instanceof FlyweightNode) {
+            root = ((FlyweightNode) root).insert(point, 0, 0, size, leafCapacity);
+        } else {
+            root = root.insert(point, 0, 0, size);
+        }
     }
 
     /**
@@ -30,132 +102,171 @@ public class PRQuadTree {
      * @return true if the point was removed, false otherwise
      */
     public boolean remove(Point point) {
-        return root.remove(point, 0, 0, size);
+        if (!contains(point)) {
+            return false;
+        }
+        removeFromTree(point);
+        names.remove(point.getName(), point);
+        return true;
     }
 
     /**
-     * Searches for points within a specified region in the QuadTree.
+     * Removes the first point with the given name, in name index order. The
+     * point is found through the name index and then removed from the tree
+     * by its coordinates, so no part of the tree is scanned.
      * 
-     * @param x      the x-coordinate of the top-left corner of the region
-     * @param y      the y-coordinate of the top-left corner of the region
-     * @param width  the width of the region
-     * @param height the height of the region
-     * @return a list of points within the specified region
+     * @param name the name of the point to remove
+     * @return the removed point, or null if no point has that name
      */
-    public ArrayList<Point> regionSearch(int x, int y, int width, int height) {
-        return root.regionSearch(x, y, width, height, 0, 0, size);
+    public Point removeByName(String name) {
+        KVPair<String, Point> pair = names.removeFirst(name);
+        if (pair == null) {
+            return null;
+        }
+        removeFromTree(pair.getValue());
+        return pair.getValue();
     }
 
     /**
-     * Searches for points by name in the QuadTree.
+     * Removes a point from the tree without touching the name index.
      * 
-     * @param name the name of the points to search for
-     * @return a list of points with the specified name
+     * @param point the point to be removed
      */
-    public ArrayList<Point> searchByName(String name) {
-        return root.search(name);
+    private void removeFromTree(Point point) {
+        if (root instanceof InternalNode) {
+            root = ((InternalNode) root).remove(point, 0, 0, size, removePath,
+                    removeQuadrants);
+        } else {
+            root = root.remove(point, 0, 0, size);
+        }
     }
 
     /**
-     * Searches for a point by coordinates in the QuadTree.
+     * Checks whether this exact point is stored in the QuadTree by walking
+     * down to the leaf that covers its coordinates.
      * 
-     * @param x the x-coordinate of the point
-     * @param y the y-coordinate of the point
-     * @return the point with the specified coordinates, or null if no such point
-     *         exists
+     * @param point the point to look for
+     * @return true if the point is in the QuadTree
      */
-    public Point searchByCoordinates(int x, int y) {
-        return searchByCoordinates(root, x, y, 0, 0, size);
+    public boolean contains(Point point) {
+        QuadTreeNode node = nodeAt(point.getX(), point.getY());
+        return node instanceof LeafNode
+                && ((LeafNode) node).contains(point);
     }
 
     /**
-     * Searches for a point by coordinates in the QuadTree.
+     * Walks down from the root to the leaf or empty node whose region holds
+     * the given coordinates. The descent is a loop, so it uses the same
+     * stack space however deep the tree is.
      * 
-     * @param node       the node to start the search from
-     * @param x          the x-coordinate of the point
-     * @param y          the y-coordinate of the point
-     * @param startX     the x-coordinate of the starting point of the search region
-     * @param startY     the y-coordinate of the starting point of the search region
-     * @param regionSize the size of the search region
-     * @return the point with the specified coordinates, or null if no such point
-     *         exists
+     * @param x the x-coordinate to look up
+     * @param y the y-coordinate to look up
+     * @return the leaf or flyweight node covering the coordinates
      */
-    private Point searchByCoordinates(QuadTreeNode node, int x, int y, int startX, int startY, int regionSize) {
-        if (node == null || node instanceof FlyweightNode) {
-            return null;
-        } else if (node instanceof LeafNode) {
-            Point point = ((LeafNode) node).getPoint(x, y);
-            if (point != null && point.getX() == x && point.getY() == y) {
-                return point;
-            }
-            return null;
-        } else if (node instanceof InternalNode) {
+    private QuadTreeNode nodeAt(int x, int y) {
+        QuadTreeNode node = root;
+        int startX = 0;
+        int startY = 0;
+        int regionSize = size;
+        while (node instanceof InternalNode) {
+            InternalNode internal = (InternalNode) node;
             int halfSize = regionSize / 2;
             int midX = startX + halfSize;
             int midY = startY + halfSize;
-
             if (x < midX) {
-                return y < midY
-                        ? searchByCoordinates(((InternalNode) node).getNw(), x, y, startX, startY, halfSize)
-                        : searchByCoordinates(((InternalNode) node).getSw(), x, y, startX, midY, halfSize);
+                node = y < midY ? internal.getNw() : internal.getSw();
             } else {
-                return y < midY
-                        ? searchByCoordinates(((InternalNode) node).getNe(), x, y, midX, startY, halfSize)
-                        : searchByCoordinates(((InternalNode) node).getSe(), x, y, midX, midY, halfSize);
+                node = y < midY ? internal.getNe() : internal.getSe();
+                startX = midX;
+            }
+            if (y >= midY) {
+                startY = midY;
             }
+            regionSize = halfSize;
         }
-        return null;
+        return node;
     }
 
     /**
-     * Finds duplicate points in the QuadTree.
+     * Searches for points within a specified region in the QuadTree.
      * 
-     * @return a list of duplicate points
+     * @param x      the x-coordinate of the top-left corner of the region
+     * @param y      the y-coordinate of the top-left corner of the region
+     * @param width  the width of the region
+     * @param height the height of the region
+     * @return a list of points within the specified region
      */
-    public ArrayList<Point> findDuplicates() {
-        ArrayList<Point> allPoints = new ArrayList<>();
-        collectPoints(root, allPoints);
-        return identifyDuplicates(allPoints);
+    public ArrayList<Point> regionSearch(int x, int y, int width, int height) {
+        return root.regionSearch(x, y, width, height, 0, 0, size);
+    }
+
+    /**
+     * Searches for points within a specified region in the QuadTree and hands
+     * each one to the sink instead of building a list.
+     * 
+     * @param x      the x-coordinate of the top-left corner of the region
+     * @param y      the y-coordinate of the top-left corner of the region
+     * @param width  the width of the region
+     * @param height the height of the region
+     * @param sink   receives every point within the specified region
+     */
+    public void regionSearch(int x, int y, int width, int height, Consumer<Point> sink) {
+        root.regionSearch(x, y, width, height, 0, 0, size, sink);
     }
 
     /**
-     * Collects all points in the QuadTree.
+     * Counts the points within a specified region without collecting them.
      * 
-     * @param node      the node to start the collection from
-     * @param allPoints the list to store the collected points
+     * @param x      the x-coordinate of the top-left corner of the region
+     * @param y      the y-coordinate of the top-left corner of the region
+     * @param width  the width of the region
+     * @param height the height of the region
+     * @return the number of points within the specified region
      */
-    private void collectPoints(QuadTreeNode node, ArrayList<Point> allPoints) {
-        if (node == null || node instanceof FlyweightNode) {
-            return;
-        } else if (node instanceof LeafNode) {
-            allPoints.addAll(((LeafNode) node).getPoints());
-        } else if (node instanceof InternalNode) {
-            collectPoints(((InternalNode) node).getNw(), allPoints);
-            collectPoints(((InternalNode) node).getNe(), allPoints);
-            collectPoints(((InternalNode) node).getSw(), allPoints);
-            collectPoints(((InternalNode) node).getSe(), allPoints);
+    public int regionCount(int x, int y, int width, int height) {
+        int[] count = new int[1];
+        root.regionSearch(x, y, width, height, 0, 0, size, p -> count[0]++);
+        return count[0];
+    }
+
+    /**
+     * Searches for points by name using the name index.
+     * 
+     * @param name the name of the points to search for
+     * @return a list of points with the specified name
+     */
+    public ArrayList<Point> searchByName(String name) {
+        ArrayList<Point> found = new ArrayList<>();
+        names.search(name, pair -> found.add(pair.getValue()));
+        return found;
+    }
+
+    /**
+     * Searches for a point by coordinates in the QuadTree.
+     * 
+     * @param x the x-coordinate of the point
+     * @param y the y-coordinate of the point
+     * @return the point with the specified coordinates, or null if no such point
+     *         exists
+     */
+    public Point searchByCoordinates(int x, int y) {
+        QuadTreeNode node = nodeAt(x, y);
+        if (node instanceof LeafNode) {
+            return ((LeafNode) node).getPoint(x, y);
         }
+        return null;
     }
 
     /**
-     * Identifies duplicate points in a list of points.
+     * Finds duplicate points in the QuadTree. Points with the same
+     * coordinates are always stored in the same leaf, so one traversal that
+     * lets each leaf report its own duplicates finds them all.
      * 
-     * @param allPoints the list of points to check for duplicates
-     * @return a list of duplicate points
+     * @return one point for each location that holds more than one point
      */
-    private ArrayList<Point> identifyDuplicates(ArrayList<Point> allPoints) {
+    public ArrayList<Point> findDuplicates() {
         ArrayList<Point> duplicates = new ArrayList<>();
-        for (int i = 0; i < allPoints.size(); i++) {
-            Point currentPoint = allPoints.get(i);
-            for (int j = i + 1; j < allPoints.size(); j++) {
-                Point comparePoint = allPoints.get(j);
-                if (currentPoint.getX() == comparePoint.getX() && currentPoint.getY() == comparePoint.getY()
-                        && !duplicates.contains(currentPoint)) {
-                    duplicates.add(currentPoint);
-                    duplicates.add(comparePoint);
-                }
-            }
-        }
+        root.findDuplicates(duplicates);
         return duplicates;
     }
 
@@ -163,8 +274,17 @@ public class PRQuadTree {
      * Prints the structure of the QuadTree.
      */
     public void dump() {
-        System.out.println("QuadTree Dump:");
-        dump(root, 0);
+        dump(OutputSink.CONSOLE);
+    }
+
+    /**
+     * Prints the structure of the QuadTree to the given sink.
+     * 
+     * @param out where to print
+     */
+    public void dump(OutputSink out) {
+        out.println("QuadTree Dump:");
+        dump(root, 0, out);
     }
 
     /**
@@ -172,41 +292,43 @@ public class PRQuadTree {
      * 
      * @param node  the node to print
      * @param depth the depth of the node in the QuadTree
+     * @param out   where to print
      */
-    private void dump(QuadTreeNode node, int depth) {
+    private void dump(QuadTreeNode node, int depth, OutputSink out) {
         int nodesPrinted = 0;
         if (node == null) {
-            printIndent(depth);
-            System.out.println("Node at 0, 0" + size + ": Empty");
+            printIndent(depth, out);
+            out.println("Node at 0, 0" + size + ": Empty");
             nodesPrinted++;
         }
         if (node instanceof InternalNode) {
-            printIndent(depth);
-            System.out.println("Internal");
+            printIndent(depth, out);
+            out.println("Internal");
             nodesPrinted++;
         } else if (node instanceof LeafNode) {
             LeafNode leafNode = (LeafNode) node;
-            printIndent(depth);
+            printIndent(depth, out);
             for (Point point : leafNode.getPoints()) {
-                System.out.println("Leaf: " + point);
+                out.println("Leaf: " + point);
                 nodesPrinted++;
             }
         } else if (node instanceof FlyweightNode) {
-            printIndent(depth);
-            System.out.println("Node at 0, 0, " + size + ": Empty");
+            printIndent(depth, out);
+            out.println("Node at 0, 0, " + size + ": Empty");
             nodesPrinted++;
         }
-        System.out.println(nodesPrinted + " quadtree nodes printed");
+        out.println(nodesPrinted + " quadtree nodes printed");
     }
 
     /**
      * Prints a number of indents.
      * 
      * @param depth the number of indents to print
+     * @param out   where to print
      */
-    private void printIndent(int depth) {
+    private void printIndent(int depth, OutputSink out) {
         for (int i = 0; i < depth; i++) {
-            System.out.print("  ");
+            out.print("  ");
         }
     }
 }
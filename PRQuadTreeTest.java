@@ -1,6 +1,7 @@
 import student.TestCase;
 import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -122,6 +123,191 @@ public class PRQuadTreeTest extends TestCase {
                                 // FlyweightNode or null
     }
 
+    /**
+     * Test that findDuplicates reports nothing when every point has its own
+     * location.
+     */
+    public void testFindDuplicatesNone() {
+        quadTree.insert(point1);
+        quadTree.insert(point2);
+        quadTree.insert(point3);
+        assertTrue(quadTree.findDuplicates().isEmpty());
+    }
+
+
+    /**
+     * Test that points at the same location are grouped as one duplicate,
+     * whatever the leaf capacity.
+     */
+    public void testFindDuplicates() {
+        for (int capacity = 1; capacity <= 4; capacity++) {
+            PRQuadTree tree = new PRQuadTree(1024, capacity);
+            tree.insert(new Point("a", 10, 10));
+            tree.insert(new Point("b", 10, 10));
+            tree.insert(new Point("c", 10, 10));
+            tree.insert(new Point("d", 12, 10));
+            tree.insert(new Point("e", 500, 500));
+            tree.insert(new Point("f", 500, 500));
+            List<Point> duplicates = tree.findDuplicates();
+            assertEquals(2, duplicates.size());
+            assertEquals(3, tree.regionSearch(0, 0, 11, 11).size());
+        }
+    }
+
+
+    /**
+     * Test that removing points merges emptied subtrees back into leaves.
+     */
+    public void testRemoveCollapses() {
+        Point a = new Point("a", 1, 1);
+        Point b = new Point("b", 2, 2);
+        Point c = new Point("c", 3, 3);
+        Point d = new Point("d", 1000, 1000);
+        quadTree.insert(a);
+        quadTree.insert(b);
+        quadTree.insert(c);
+        quadTree.insert(d);
+        assertTrue(quadTree.remove(a));
+        assertFalse(quadTree.remove(a));
+        assertTrue(quadTree.contains(b));
+
+        outContent.reset();
+        quadTree.dump();
+        assertTrue(outContent.toString().contains("Leaf: b 2 2"));
+        assertFalse(outContent.toString().contains("Internal"));
+
+        assertTrue(quadTree.remove(b));
+        assertTrue(quadTree.remove(c));
+        assertTrue(quadTree.remove(d));
+        assertFalse(quadTree.contains(d));
+        assertTrue(quadTree.regionSearch(0, 0, 1024, 1024).isEmpty());
+    }
+
+
+    /**
+     * Test that the sink and count forms of region search agree with the
+     * list form.
+     */
+    public void testRegionSearchSinkAndCount() {
+        quadTree.insert(point1);
+        quadTree.insert(point2);
+        quadTree.insert(point3);
+        quadTree.insert(new Point("far", 900, 900));
+
+        List<Point> listed = quadTree.regionSearch(50, 50, 300, 300);
+        List<Point> sunk = new ArrayList<>();
+        quadTree.regionSearch(50, 50, 300, 300, sunk::add);
+        assertEquals(3, listed.size());
+        assertEquals(listed, sunk);
+        assertEquals(3, quadTree.regionCount(50, 50, 300, 300));
+        assertEquals(0, quadTree.regionCount(400, 400, 10, 10));
+    }
+
+
+    /**
+     * Test that region search includes points on the far edge of the
+     * region even when they start a new quadrant, and that a region covering
+     * whole subtrees reports every point in them.
+     */
+    public void testRegionSearchPruning() {
+        PRQuadTree tree = new PRQuadTree(1024, 1);
+        tree.insert(new Point("a", 10, 10));
+        tree.insert(new Point("b", 11, 10));
+        tree.insert(new Point("c", 600, 600));
+        assertEquals(1, tree.regionCount(0, 0, 10, 10));
+        assertEquals(2, tree.regionCount(0, 0, 11, 11));
+        assertEquals(3, tree.regionCount(0, 0, 1024, 1024));
+        assertEquals(1, tree.regionCount(512, 512, 512, 512));
+        assertEquals(0, tree.regionCount(12, 0, 500, 500));
+    }
+
+
+    /**
+     * Test that name lookups and removals by name go through the name index
+     * and stay in step with the tree.
+     */
+    public void testRemoveByName() {
+        quadTree.insert(point1);
+        quadTree.insert(point2);
+        quadTree.insert(point3);
+        quadTree.insert(point1);
+        assertEquals(2, quadTree.searchByName("TestPoint1").size());
+
+        Point removed = quadTree.removeByName("TestPoint1");
+        assertNotNull(removed);
+        assertFalse(quadTree.contains(removed));
+        assertEquals(1, quadTree.searchByName("TestPoint1").size());
+        assertNull(quadTree.removeByName("Missing"));
+
+        assertTrue(quadTree.remove(point2));
+        assertTrue(quadTree.searchByName("TestPoint2").isEmpty());
+        assertEquals(1, quadTree.regionCount(0, 0, 1024, 1024));
+    }
+
+
+    /**
+     * Test that a shared SkipList is kept up to date by the tree.
+     */
+    public void testSharedNameIndex() {
+        SkipList<String, Point> names = new SkipList<>();
+        PRQuadTree tree = new PRQuadTree(1024, 2, names);
+        tree.insert(point1);
+        tree.insert(point3);
+        assertEquals(2, names.size());
+        tree.remove(point3);
+        assertEquals(1, names.size());
+        assertSame(point1, names.search("TestPoint1").get(0).getValue());
+    }
+
+
+    /**
+     * Test coordinate lookups, inserts and removals on the deepest tree a
+     * 1024 world allows, built from two neighbouring points.
+     */
+    public void testDeepTree() {
+        PRQuadTree tree = new PRQuadTree(1024, 1);
+        Point a = new Point("a", 0, 0);
+        Point b = new Point("b", 1, 0);
+        Point c = new Point("c", 1, 1);
+        tree.insert(a);
+        tree.insert(b);
+        tree.insert(b);
+        tree.insert(c);
+        assertSame(a, tree.searchByCoordinates(0, 0));
+        assertSame(b, tree.searchByCoordinates(1, 0));
+        assertSame(c, tree.searchByCoordinates(1, 1));
+        assertNull(tree.searchByCoordinates(0, 1));
+        assertNull(tree.searchByCoordinates(700, 700));
+        assertEquals(3, tree.regionCount(0, 0, 1024, 1024));
+
+        assertTrue(tree.remove(b));
+        assertFalse(tree.remove(b));
+        assertTrue(tree.remove(c));
+        assertSame(a, tree.searchByCoordinates(0, 0));
+        assertNull(tree.searchByCoordinates(1, 0));
+        assertTrue(tree.remove(a));
+        assertEquals(0, tree.regionCount(0, 0, 1024, 1024));
+    }
+
+
+    /**
+     * Test that inserting a batch fills both the tree and the name index,
+     * skipping a point that is already in the tree.
+     */
+    public void testInsertAll() {
+        quadTree.insert(point2);
+        ArrayList<Point> batch = new ArrayList<>();
+        batch.add(point1);
+        batch.add(point2);
+        batch.add(point3);
+        quadTree.insertAll(batch);
+        assertEquals(3, quadTree.regionCount(0, 0, 1024, 1024));
+        assertEquals(2, quadTree.searchByName("TestPoint1").size());
+        assertEquals(1, quadTree.searchByName("TestPoint2").size());
+        assertSame(point3, quadTree.searchByCoordinates(300, 300));
+    }
+
+
     /**
      * public void testSearchByCoordinatesMutation() {
      * // Insert points into the quadtree
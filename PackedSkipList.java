@@ -0,0 +1,328 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import student.TestableRandom;
+
+/**
+ * A SkipList with the same insert, search, remove, iterator and dump
+ * contract as SkipList, that stores its towers in primitive arrays instead
+ * of one SkipNode object and one forward array per entry.
+ *
+ * Every entry is a node id, an index into a few parallel arrays: the KVPair
+ * it holds, the height of its tower, and where its tower starts in one
+ * shared int array of forward links. A link holds the id of the next node
+ * on that level, and 0, the id of the head, marks the end of a level since
+ * the head is never anyone's successor. Removed ids and towers are kept on
+ * free lists and handed out again, so a list that grows and shrinks does
+ * not leave holes behind.
+ *
+ * An entry costs one array slot for its pair, one byte for its height, one
+ * int for its tower start and one int per level, about 17 bytes on average
+ * with the slack the arrays keep for growth, against a SkipNode and its
+ * forward array in SkipList.
+ *
+ * @author kinjalpandey, architg03
+ * @version 02/28/2024
+ * @param <K>
+ *            Key
+ * @param <V>
+ *            Value
+ */
+public class PackedSkipList<K extends Comparable<? super K>, V>
+    implements Iterable<KVPair<K, V>> {
+
+    // tallest tower a node can have
+    private static final int MAX_HEIGHT = 32;
+    // id of the head node, which doubles as the end of every level
+    private static final int HEAD = 0;
+    // marks an empty free list
+    private static final int NONE = -1;
+
+    // the pair held by each node id
+    private KVPair<K, V>[] pairs;
+    // where each node's tower starts in links
+    private int[] tower;
+    // number of levels in each node's tower
+    private byte[] height;
+    // every tower, back to back; links[tower[id] + l] is id's next node on
+    // level l
+    private int[] links;
+
+    // node ids handed out so far, head included
+    private int nodes;
+    // slots of links handed out so far
+    private int linksUsed;
+    // ids of removed nodes, ready to be reused
+    private int[] freeIds;
+    private int freeIdCount;
+    // for each height, the first free tower of that height, with the rest
+    // chained through the first slot of each free tower
+    private final int[] freeTowers;
+
+    // highest level in use, where descents start
+    private int level;
+    private int size;
+    private final Random rng;
+    // the last node before the key on each level, reused by every update
+    private final int[] update;
+
+    /**
+     * Creates an empty list.
+     */
+    @SuppressWarnings("unchecked")
+    public PackedSkipList() {
+        int capacity = 16;
+        pairs = (KVPair<K, V>[])new KVPair<?, ?>[capacity];
+        tower = new int[capacity];
+        height = new byte[capacity];
+        links = new int[MAX_HEIGHT + capacity * 2];
+        freeIds = new int[capacity];
+        freeTowers = new int[MAX_HEIGHT + 1];
+        Arrays.fill(freeTowers, NONE);
+        update = new int[MAX_HEIGHT];
+        rng = new TestableRandom();
+
+        // the head's tower is always full height
+        nodes = 1;
+        tower[HEAD] = 0;
+        height[HEAD] = MAX_HEIGHT;
+        linksUsed = MAX_HEIGHT;
+        level = 0;
+        size = 0;
+    }
+
+
+    /**
+     * @return the size of the list
+     */
+    public int size() {
+        return size;
+    }
+
+
+    /**
+     * Inserts the pair in key order, in front of any pairs that already have
+     * its key. A null pair is ignored.
+     *
+     * @param it
+     *            the KVPair to be inserted
+     */
+    public void insert(KVPair<K, V> it) {
+        if (it == null) {
+            return;
+        }
+        int h = randomHeight();
+        if (h - 1 > level) {
+            level = h - 1;
+        }
+        descend(it.getKey());
+        int id = allocate(h);
+        pairs[id] = it;
+        int start = tower[id];
+        for (int l = 0; l < h; l++) {
+            int prev = tower[update[l]] + l;
+            links[start + l] = links[prev];
+            links[prev] = id;
+        }
+        size++;
+    }
+
+
+    /**
+     * Finds every pair with the given key, newest first.
+     *
+     * @param key
+     *            key to be searched for
+     * @return the pairs with that key
+     */
+    public ArrayList<KVPair<K, V>> search(K key) {
+        ArrayList<KVPair<K, V>> result = new ArrayList<>();
+        int x = HEAD;
+        for (int l = level; l >= 0; l--) {
+            int next = links[tower[x] + l];
+            while (next != HEAD && pairs[next].getKey().compareTo(key) < 0) {
+                x = next;
+                next = links[tower[x] + l];
+            }
+        }
+        x = links[tower[x]];
+        while (x != HEAD && pairs[x].getKey().compareTo(key) == 0) {
+            result.add(pairs[x]);
+            x = links[tower[x]];
+        }
+        return result;
+    }
+
+
+    /**
+     * Removes the first pair in list order with the given key.
+     *
+     * @param key
+     *            Key of the KVPair to remove.
+     * @return the removed KVPair, or null if no pair has that key
+     */
+    public KVPair<K, V> remove(K key) {
+        if (key == null) {
+            return null;
+        }
+        descend(key);
+        int target = links[tower[update[0]]];
+        if (target == HEAD || pairs[target].getKey().compareTo(key) != 0) {
+            return null;
+        }
+        int start = tower[target];
+        for (int l = 0; l < height[target]; l++) {
+            int prev = tower[update[l]] + l;
+            if (links[prev] == target) {
+                links[prev] = links[start + l];
+            }
+        }
+        while (level > 0 && links[level] == HEAD) {
+            level--;
+        }
+        KVPair<K, V> removed = pairs[target];
+        release(target);
+        size--;
+        return removed;
+    }
+
+
+    /**
+     * Prints out the list in the same format as SkipList.dump, with the
+     * same depths for the same random draws. A SkipList node drawn at
+     * level h has h + 1 forward links where a tower here has h, so every
+     * depth printed is one more than the tower height, and the head's is
+     * one more than the tallest tower's, or 1 for an empty list.
+     */
+    public void dump() {
+        System.out.println("SkipList dump:");
+        System.out.println("Node has depth " + (size == 0 ? 1 : level + 2)
+            + ", Value null");
+        if (size == 0) {
+            System.out.println("SkipList size is: 0");
+            return;
+        }
+        for (int x = links[0]; x != HEAD; x = links[tower[x]]) {
+            System.out.println("Node has depth " + (height[x] + 1)
+                + ", value " + "(" + pairs[x] + ")");
+        }
+        System.out.println("SkipList size is: " + size);
+    }
+
+
+    /**
+     * Fills update with the last node before the key on every level in use.
+     *
+     * @param key
+     *            the key to descend to
+     */
+    private void descend(K key) {
+        int x = HEAD;
+        for (int l = level; l >= 0; l--) {
+            int next = links[tower[x] + l];
+            while (next != HEAD && pairs[next].getKey().compareTo(key) < 0) {
+                x = next;
+                next = links[tower[x] + l];
+            }
+            update[l] = x;
+        }
+    }
+
+
+    /**
+     * Hands out a node id with a tower of the given height, reusing a
+     * removed id and tower when there is one and growing the arrays when
+     * there is not.
+     *
+     * @param h
+     *            the height of the tower
+     * @return the new node id
+     */
+    private int allocate(int h) {
+        int id;
+        if (freeIdCount > 0) {
+            id = freeIds[--freeIdCount];
+        }
+        else {
+            if (nodes == pairs.length) {
+                int capacity = pairs.length * 2;
+                pairs = Arrays.copyOf(pairs, capacity);
+                tower = Arrays.copyOf(tower, capacity);
+                height = Arrays.copyOf(height, capacity);
+            }
+            id = nodes++;
+        }
+        int start = freeTowers[h];
+        if (start != NONE) {
+            freeTowers[h] = links[start];
+        }
+        else {
+            if (linksUsed + h > links.length) {
+                links = Arrays.copyOf(links, Math.max(links.length * 2,
+                    linksUsed + h));
+            }
+            start = linksUsed;
+            linksUsed += h;
+        }
+        tower[id] = start;
+        height[id] = (byte)h;
+        return id;
+    }
+
+
+    /**
+     * Puts a removed node's id and tower on the free lists.
+     *
+     * @param id
+     *            the removed node
+     */
+    private void release(int id) {
+        int h = height[id];
+        links[tower[id]] = freeTowers[h];
+        freeTowers[h] = tower[id];
+        pairs[id] = null;
+        if (freeIdCount == freeIds.length) {
+            freeIds = Arrays.copyOf(freeIds, freeIds.length * 2);
+        }
+        freeIds[freeIdCount++] = id;
+    }
+
+
+    /**
+     * @return the height of a new tower, at least 1, growing by one level
+     *         for each true drawn from the random generator
+     */
+    private int randomHeight() {
+        int h = 1;
+        while (h < MAX_HEIGHT && rng.nextBoolean()) {
+            h++;
+        }
+        return h;
+    }
+
+
+    @Override
+    public Iterator<KVPair<K, V>> iterator() {
+        return new Iterator<KVPair<K, V>>() {
+            private int next = links[0];
+
+            @Override
+            public boolean hasNext() {
+                return next != HEAD;
+            }
+
+
+            @Override
+            public KVPair<K, V> next() {
+                if (next == HEAD) {
+                    throw new NoSuchElementException();
+                }
+                KVPair<K, V> elem = pairs[next];
+                next = links[tower[next]];
+                return elem;
+            }
+        };
+    }
+}
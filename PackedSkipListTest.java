@@ -0,0 +1,155 @@
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.Random;
+import student.TestCase;
+import student.TestableRandom;
+
+/**
+ * Tests the PackedSkipList class against the SkipList contract.
+ *
+ * @author kinjalpandey, architg03
+ * @version 02/28/2024
+ */
+public class PackedSkipListTest extends TestCase {
+
+    private final ByteArrayOutputStream outContent =
+        new ByteArrayOutputStream();
+    private final PrintStream originalOut = System.out;
+    private PackedSkipList<String, Rectangle> sl;
+    private Rectangle r1;
+    private Rectangle r2;
+
+    /**
+     * Sets up the test cases
+     */
+    public void setUp() {
+        System.setOut(new PrintStream(outContent));
+        sl = new PackedSkipList<>();
+        r1 = new Rectangle(1, 1, 1, 1);
+        r2 = new Rectangle(2, 2, 2, 2);
+    }
+
+
+    /**
+     * Clears for new test
+     */
+    public void tearDown() {
+        System.setOut(originalOut);
+    }
+
+
+    /**
+     * Testing insert(), search() and remove()
+     * duplicate keys should come back newest first, and remove should take
+     * the first of them
+     */
+    public void testInsertSearchRemove() {
+        KVPair<String, Rectangle> b = new KVPair<>("b", r1);
+        KVPair<String, Rectangle> b2 = new KVPair<>("b", r2);
+        KVPair<String, Rectangle> a = new KVPair<>("a", r2);
+        sl.insert(b);
+        sl.insert(a);
+        sl.insert(b2);
+        sl.insert(null);
+        assertEquals(3, sl.size());
+        ArrayList<KVPair<String, Rectangle>> found = sl.search("b");
+        assertEquals(2, found.size());
+        assertSame(b2, found.get(0));
+        assertSame(b, found.get(1));
+        assertTrue(sl.search("c").isEmpty());
+
+        assertNull(sl.remove("c"));
+        assertNull(sl.remove(null));
+        assertSame(b2, sl.remove("b"));
+        assertSame(b, sl.remove("b"));
+        assertSame(a, sl.remove("a"));
+        assertEquals(0, sl.size());
+        assertFalse(sl.iterator().hasNext());
+    }
+
+
+    /**
+     * Testing dump()
+     * should print the same lines as the SkipList for the same levels,
+     * empty, filled and emptied again
+     */
+    public void testDump() {
+        SkipList<String, Rectangle> list = new SkipList<>();
+        MemoryOutputSink expected = new MemoryOutputSink();
+        list.dump(expected);
+        TestableRandom.setNextBooleans(true, false, false);
+        list.insert(new KVPair<>("a", r1));
+        list.insert(new KVPair<>("b", r2));
+        list.dump(expected);
+        list.remove("a");
+        list.remove("b");
+        list.dump(expected);
+
+        sl.dump();
+        TestableRandom.setNextBooleans(true, false, false);
+        sl.insert(new KVPair<>("a", r1));
+        sl.insert(new KVPair<>("b", r2));
+        sl.dump();
+        sl.remove("a");
+        sl.remove("b");
+        sl.dump();
+        assertEquals(expected.getHistory(), outContent.toString().replace(
+            System.lineSeparator(), "\n"));
+        assertTrue(expected.getHistory().contains(
+            "Node has depth 3, Value null\n"
+                + "Node has depth 3, value ((a, 1, 1, 1, 1))\n"
+                + "Node has depth 2, value ((b, 2, 2, 2, 2))\n"));
+    }
+
+
+    /**
+     * Testing iterator()
+     */
+    public void testIterator() {
+        sl.insert(new KVPair<>("b", r1));
+        sl.insert(new KVPair<>("a", r1));
+        Iterator<KVPair<String, Rectangle>> itr = sl.iterator();
+        assertEquals("a", itr.next().getKey());
+        assertEquals("b", itr.next().getKey());
+        assertFalse(itr.hasNext());
+        Exception thrown = null;
+        try {
+            itr.next();
+        }
+        catch (Exception e) {
+            thrown = e;
+        }
+        assertTrue(thrown instanceof java.util.NoSuchElementException);
+    }
+
+
+    /**
+     * Testing insert() and remove() against a SkipList over a long run of
+     * random operations, so freed ids and towers get reused many times
+     */
+    public void testMatchesSkipList() {
+        SkipList<String, Rectangle> model = new SkipList<>();
+        Random ops = new Random(7);
+        for (int i = 0; i < 5000; i++) {
+            String key = "k" + ops.nextInt(40);
+            if (ops.nextInt(3) == 0) {
+                KVPair<String, Rectangle> removed = sl.remove(key);
+                KVPair<String, Rectangle> expected = model.remove(key);
+                assertSame(expected, removed);
+            }
+            else {
+                KVPair<String, Rectangle> pair = new KVPair<>(key, r1);
+                sl.insert(pair);
+                model.insert(pair);
+            }
+        }
+        assertEquals(model.size(), sl.size());
+        Iterator<KVPair<String, Rectangle>> itr = sl.iterator();
+        for (KVPair<String, Rectangle> pair : model) {
+            assertSame(pair, itr.next());
+        }
+        assertFalse(itr.hasNext());
+    }
+}
@@ -0,0 +1,100 @@
+/**
+ * One command line after parsing: what to do and its arguments, or the
+ * message to print when the line was not a valid command. Splitting the
+ * parse from the work lets a CommandPipeline parse lines on one thread
+ * while the database runs earlier commands on another.
+ *
+ * A command is filled in again for every line, so the fields are left open
+ * to the processors that fill and read them rather than hidden behind a
+ * constructor that would make a new object per line.
+ *
+ * @author kinjalpandey, architg03
+ * @version 02/28/2024
+ */
+public class ParsedCommand {
+
+    /**
+     * The kinds of command a line can hold.
+     */
+    public enum Kind {
+        /** insert a named rectangle or point */
+        INSERT,
+        /** remove by name */
+        REMOVE_NAME,
+        /** remove by coordinates */
+        REMOVE_AT,
+        /** search a region */
+        REGIONSEARCH,
+        /** list intersecting rectangles */
+        INTERSECTIONS,
+        /** list duplicate points */
+        DUPLICATES,
+        /** search by name */
+        SEARCH,
+        /** dump the structures */
+        DUMP,
+        /** not a valid command; print the message */
+        MESSAGE;
+    }
+
+    // what the line asks for
+    Kind kind;
+    // the name argument, if the command has one
+    String name;
+    // the numeric arguments, in the order they appear on the line
+    int x;
+    int y;
+    int w;
+    int h;
+    // what to print for a line that is not a valid command
+    String message;
+
+    /**
+     * Makes this a command with a name and up to four numbers.
+     *
+     * @param what
+     *            the kind of command
+     * @param named
+     *            the name, or null
+     * @param x0
+     *            the first number
+     * @param y0
+     *            the second number
+     * @param w0
+     *            the third number
+     * @param h0
+     *            the fourth number
+     */
+    void set(Kind what, String named, int x0, int y0, int w0, int h0) {
+        kind = what;
+        name = named;
+        x = x0;
+        y = y0;
+        w = w0;
+        h = h0;
+        message = null;
+    }
+
+
+    /**
+     * Makes this a command of the given kind with no arguments.
+     *
+     * @param what
+     *            the kind of command
+     */
+    void set(Kind what) {
+        set(what, null, 0, 0, 0, 0);
+    }
+
+
+    /**
+     * Makes this a line that only prints a message.
+     *
+     * @param text
+     *            the message
+     */
+    void reject(String text) {
+        set(Kind.MESSAGE);
+        message = text;
+    }
+}
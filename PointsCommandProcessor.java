@@ -1,92 +1,164 @@
-public class PointsCommandProcessor {
+import java.util.ArrayList;
+
+public class PointsCommandProcessor implements CommandPipeline.Handler {
 
     private PointsDatabase database;
+    // where the database and the error messages print
+    private OutputSink out;
+    // splits each line; reused so parsing a command allocates nothing
+    private CommandTokenizer parts = new CommandTokenizer();
+    // the command processCommand parses each line into before running it
+    private ParsedCommand command = new ParsedCommand();
+    // insert commands from the start of a file, held back while bulk
+    // loading so the database can load them together; null otherwise
+    private ArrayList<Point> pendingInserts;
 
     public PointsCommandProcessor() {
-        database = new PointsDatabase();
+        this(OutputSink.CONSOLE);
     }
 
-    public void processCommand(String line) {
-        String[] parts = line.trim().split("\\s+");
-        String command = parts[0].toLowerCase();
+    // prints every result and message to the given sink, marking the end of
+    // each command so a buffered sink knows when it may write out
+    public PointsCommandProcessor(OutputSink out) {
+        this.out = out;
+        database = new PointsDatabase(out);
+    }
 
-        switch (command) {
-            case "insert":
-                handleInsert(parts);
+    // the line may be a reused view, such as the ones the MappedLineReader
+    // hands out; it is split in place and not kept
+    public void processCommand(CharSequence line) {
+        parse(line, command);
+        execute(command);
+    }
+
+    // parses a line into a command without running it; a line that is not a
+    // valid command becomes one that prints the message for it. Only the
+    // tokenizer is touched, so this may run on another thread than execute
+    public void parse(CharSequence line, ParsedCommand parsed) {
+        parts.resetTrimmed(line);
+        if (parts.isIgnoreCase(0, "insert")) {
+            parseInsert(parsed);
+        } else if (parts.isIgnoreCase(0, "remove")) {
+            parseRemove(parsed);
+        } else if (parts.isIgnoreCase(0, "regionsearch")) {
+            parseRegionSearch(parsed);
+        } else if (parts.isIgnoreCase(0, "search")) {
+            parseSearch(parsed);
+        } else if (parts.isIgnoreCase(0, "duplicates")) {
+            parsed.set(ParsedCommand.Kind.DUPLICATES);
+        } else if (parts.isIgnoreCase(0, "dump")) {
+            parsed.set(ParsedCommand.Kind.DUMP);
+        } else {
+            parsed.reject("Unrecognized command: " + line);
+        }
+    }
+
+    // runs a parsed command against the database, or prints its message,
+    // and marks the end of the command on the sink
+    public void execute(ParsedCommand parsed) {
+        if (pendingInserts != null) {
+            if (parsed.kind == ParsedCommand.Kind.INSERT) {
+                pendingInserts.add(new Point(parsed.name, parsed.x, parsed.y));
+                return;
+            }
+            // the insert-only prefix is over
+            endBulkLoad();
+        }
+
+        switch (parsed.kind) {
+            case INSERT:
+                database.insert(parsed.name, parsed.x, parsed.y);
                 break;
-            case "remove":
-                handleRemove(parts);
+            case REMOVE_NAME:
+                database.remove(parsed.name);
                 break;
-            case "regionsearch":
-                handleRegionSearch(parts);
+            case REMOVE_AT:
+                database.remove(parsed.x, parsed.y);
                 break;
-            case "search":
-                handleSearch(parts);
+            case REGIONSEARCH:
+                database.regionSearch(parsed.x, parsed.y, parsed.w, parsed.h);
                 break;
-            case "duplicates":
+            case SEARCH:
+                database.search(parsed.name);
+                break;
+            case DUPLICATES:
                 database.duplicates();
                 break;
-            case "dump":
+            case DUMP:
                 database.dump();
                 break;
             default:
-                System.out.println("Unrecognized command: " + line);
+                out.println(parsed.message);
                 break;
         }
+        out.endCommand();
+    }
+
+    // holds back well formed inserts until the first other command or
+    // endBulkLoad, so a file that starts with many inserts loads in one pass
+    public void startBulkLoad() {
+        pendingInserts = new ArrayList<>();
+    }
+
+    // inserts any held back points and goes back to running every command
+    // as it arrives; must be called after the last line of the file
+    public void endBulkLoad() {
+        if (pendingInserts != null) {
+            database.insertAll(pendingInserts);
+            pendingInserts = null;
+            out.endCommand();
+        }
     }
 
-    private void handleInsert(String[] parts) {
-        if (parts.length == 4) {
+    private void parseInsert(ParsedCommand parsed) {
+        if (parts.count() == 4) {
             try {
-                String name = parts[1];
-                int x = Integer.parseInt(parts[2]);
-                int y = Integer.parseInt(parts[3]);
-                database.insert(name, x, y);
+                parsed.set(ParsedCommand.Kind.INSERT, parts.text(1),
+                        parts.intAt(2), parts.intAt(3), 0, 0);
             } catch (NumberFormatException e) {
-                System.out.println("Invalid parameters for insert command.");
+                parsed.reject("Invalid parameters for insert command.");
             }
         } else {
-            System.out.println("Invalid insert command.");
+            parsed.reject("Invalid insert command.");
         }
     }
 
-    private void handleRemove(String[] parts) {
-        if (parts.length == 2) {
-            database.remove(parts[1]); // Remove by name
-        } else if (parts.length == 3) {
+    private void parseRemove(ParsedCommand parsed) {
+        if (parts.count() == 2) {
+            // Remove by name
+            parsed.set(ParsedCommand.Kind.REMOVE_NAME, parts.text(1), 0, 0, 0,
+                    0);
+        } else if (parts.count() == 3) {
             try {
-                int x = Integer.parseInt(parts[1]);
-                int y = Integer.parseInt(parts[2]);
-                database.remove(x, y);
+                parsed.set(ParsedCommand.Kind.REMOVE_AT, null, parts.intAt(1),
+                        parts.intAt(2), 0, 0);
             } catch (NumberFormatException e) {
-                System.out.println("Invalid parameters for remove command.");
+                parsed.reject("Invalid parameters for remove command.");
             }
         } else {
-            System.out.println("Invalid remove command.");
+            parsed.reject("Invalid remove command.");
         }
     }
 
-    private void handleRegionSearch(String[] parts) {
-        if (parts.length == 5) {
+    private void parseRegionSearch(ParsedCommand parsed) {
+        if (parts.count() == 5) {
             try {
-                int x = Integer.parseInt(parts[1]);
-                int y = Integer.parseInt(parts[2]);
-                int width = Integer.parseInt(parts[3]);
-                int height = Integer.parseInt(parts[4]);
-                database.regionSearch(x, y, width, height);
+                parsed.set(ParsedCommand.Kind.REGIONSEARCH, null,
+                        parts.intAt(1), parts.intAt(2), parts.intAt(3),
+                        parts.intAt(4));
             } catch (NumberFormatException e) {
-                System.out.println("Invalid parameters for regionsearch command.");
+                parsed.reject("Invalid parameters for regionsearch command.");
             }
         } else {
-            System.out.println("Invalid regionsearch command.");
+            parsed.reject("Invalid regionsearch command.");
         }
     }
 
-    private void handleSearch(String[] parts) {
-        if (parts.length == 2) {
-            database.search(parts[1]);
+    private void parseSearch(ParsedCommand parsed) {
+        if (parts.count() == 2) {
+            parsed.set(ParsedCommand.Kind.SEARCH, parts.text(1), 0, 0, 0, 0);
         } else {
-            System.out.println("Invalid search command.");
+            parsed.reject("Invalid search command.");
         }
     }
 }
@@ -1,7 +1,9 @@
 import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Scanner;
+import java.util.function.Consumer;
 import java.io.File;
 
 /**
@@ -15,13 +17,34 @@ public class PointsDatabase {
     private SkipList<String, Point> skipList;
     private PRQuadTree quadTree;
     private static final int WORLD_SIZE = 1024;
+    // splits the lines handed to processor without making a String per word
+    private CommandTokenizer tokens = new CommandTokenizer();
+    // where every result is printed
+    private OutputSink out;
+    // prints the point of each pair a search finds; made once so a search
+    // allocates nothing for it
+    private Consumer<KVPair<String, Point>> printPoint;
 
     /**
-     * init
+     * init, printing results to the console
      */
     public PointsDatabase() {
+        this(OutputSink.CONSOLE);
+    }
+
+    /**
+     * init, printing results to the given sink
+     * 
+     * @param out
+     *             where to print results
+     */
+    public PointsDatabase(OutputSink out) {
+        this.out = out;
+        this.printPoint = pair -> out.println(pair.getValue());
         this.skipList = new SkipList<>();
-        this.quadTree = new PRQuadTree(WORLD_SIZE);
+        // the tree keeps skipList up to date as its name index
+        this.quadTree = new PRQuadTree(WORLD_SIZE, LeafNode.DEFAULT_CAPACITY,
+                skipList);
     }
 
     /**
@@ -40,18 +63,23 @@ public class PointsDatabase {
         }
 
         String commandFileName = args[0];
-        PointsCommandProcessor commandProcessor = new PointsCommandProcessor();
 
-        // Attempt to open and process the command file
-        try (Scanner scanner = new Scanner(new File(commandFileName))) {
-            while (scanner.hasNextLine()) {
-                String line = scanner.nextLine().trim();
-                if (!line.isEmpty()) {
-                    commandProcessor.processCommand(line);
-                }
-            }
+        // Attempt to map and process the command file; the reader skips
+        // blank lines and trims the rest. Reading, parsing, running and
+        // printing each happen on their own thread, and closing the
+        // pipeline prints whatever output is still held back
+        try (CommandPipeline pipeline = new CommandPipeline(System.out)) {
+            PointsCommandProcessor commandProcessor =
+                    new PointsCommandProcessor(pipeline.sink());
+            // the inserts at the start of the file are loaded together
+            commandProcessor.startBulkLoad();
+            pipeline.run(new File(commandFileName), commandProcessor);
+            commandProcessor.endBulkLoad();
         } catch (FileNotFoundException e) {
             System.out.println("Command file not found: " + commandFileName);
+        } catch (IOException e) {
+            System.out.println("Command file could not be read: "
+                    + commandFileName);
         }
     }
 
@@ -98,25 +126,63 @@ public class PointsDatabase {
      *             coord
      */
     public void insert(String name, int x, int y) {
+        Point point = new Point(name, x, y);
+        if (accept(point, null)) {
+            quadTree.insert(point);
+            out.println("Point inserted: " + point);
+        }
+    }
+
+    /**
+     * Inserts a batch of points, printing the same messages in the same
+     * order as calling insert on each of them, and then hands the accepted
+     * points to the QuadTree together so its name index can be loaded in
+     * one pass.
+     * 
+     * @param points
+     *               the points to be inserted, in insertion order
+     */
+    public void insertAll(ArrayList<Point> points) {
+        ArrayList<Point> accepted = new ArrayList<>(points.size());
+        HashSet<String> batchNames = new HashSet<>();
+        for (Point point : points) {
+            if (accept(point, batchNames)) {
+                accepted.add(point);
+                batchNames.add(point.getName());
+                out.println("Point inserted: " + point);
+            }
+        }
+        quadTree.insertAll(accepted);
+    }
+
+    /**
+     * Checks that a point lies inside the world and that its name is not
+     * taken, printing the rejection message if it cannot be inserted.
+     * 
+     * @param point
+     *                   the point to check
+     * @param batchNames
+     *                   names accepted earlier in the same batch but not yet
+     *                   inserted, or null
+     * @return true if the point can be inserted
+     */
+    private boolean accept(Point point, HashSet<String> batchNames) {
+        String name = point.getName();
+        int x = point.getX();
+        int y = point.getY();
         if (x < 0 || y < 0 || x >= WORLD_SIZE || y >= WORLD_SIZE) {
-            System.out.println("Point rejected: (" + name + ", " + x + ", " + y + ")");
-            return;
+            out.println("Point rejected: (" + name + ", " + x + ", " + y + ")");
+            return false;
         }
 
-        Point point = new Point(name, x, y);
         // Check for existing point with the same name
-        if (!skipList.search(name).isEmpty()) {
-            System.out.println("A point with name " + name
+        if (skipList.contains(name)
+                || (batchNames != null && batchNames.contains(name))) {
+            out.println("A point with name " + name
                     + " already exists.");
-            return;
+            return false;
         }
-
-        // Create a KVPair object for the insertion
-        KVPair<String, Point> pair = new KVPair<>(name, point);
-        skipList.insert(pair); // Now we're passing a KVPair as expected by the
-                               // SkipList.insert method
-        quadTree.insert(point);
-        System.out.println("Point inserted: " + point);
+        return true;
     }
 
     /**
@@ -126,20 +192,12 @@ public class PointsDatabase {
      *             name
      */
     public void remove(String name) {
-        List<Point> points = getPointsFromSkipList(name); // Use the utility method
-        if (points == null) {
-            System.out.println("Point not found: " + name);
-            return;
-        }
-        if (points.isEmpty()) {
-            System.out.println("Point not removed: " + name);
+        Point pointToRemove = quadTree.removeByName(name);
+        if (pointToRemove == null) {
+            out.println("Point not removed: " + name);
             return;
         }
-
-        Point pointToRemove = points.get(0);
-        skipList.remove(name); // Assuming removal by key
-        quadTree.remove(pointToRemove); // Assuming direct removal by Point object is supported
-        System.out.println("Point removed: " + pointToRemove);
+        out.println("Point removed: " + pointToRemove);
     }
 
     /**
@@ -151,39 +209,17 @@ public class PointsDatabase {
      *          coord
      */
     public void remove(int x, int y) {
-        // Assuming PRQuadTree provides a method to directly find points by
-        // coordinates
-        @SuppressWarnings("unchecked")
-        List<Point> points = (List<Point>) quadTree.searchByCoordinates(x, y);
-        if (points == null) {
-            System.out.println("Point not found: (" + x + ", " + y + ")");
+        if (x < 0 || y < 0) {
+            out.println("Point rejected: (" + x + ", " + y + ")");
             return;
         }
-        if (points.get(0).isValid() == false) {
-            System.out.println("Point rejected (" + x + ", " + y + ")");
+        Point pointToRemove = quadTree.searchByCoordinates(x, y);
+        if (pointToRemove == null) {
+            out.println("Point not found: (" + x + ", " + y + ")");
             return;
         }
-        Point pointToRemove = points.get(0);
-        if (points.get(0).isValid() == false) {
-            System.out.println("Point rejected (" + x + ", " + y + ")");
-            return;
-        }
-        // if (points == null) {
-        // System.out.println("Point not found REVISIT THISSSS REJECT INVALID POINTS AND
-        // NOT FOUND IF POINT IS ACC NOT FOUND(" + x+ ", " + y + ")");
-        // return;
-        // }
-        if (points.isEmpty()) {
-            System.out.println("Point not found (" + x + ", " + y + ")");
-            return;
-        }
-
-        // Assuming we're dealing with unique points or just removing the first
-        // found
-        quadTree.remove(pointToRemove); // Adjusted for hypothetical direct
-                                        // removal
-        skipList.remove(pointToRemove.getName());
-        System.out.println("Point removed: " + pointToRemove);
+        quadTree.remove(pointToRemove); // also drops it from the skipList
+        out.println("Point removed: " + pointToRemove);
     }
 
     /**
@@ -200,15 +236,15 @@ public class PointsDatabase {
      */
     public void regionSearch(int x, int y, int width, int height) {
         if (width <= 0 || height <= 0) {
-            System.out.println("Rectangle rejected: (" + x + ", " + y + ", "
+            out.println("Rectangle rejected: (" + x + ", " + y + ", "
                     + width + ", " + height + ")");
             return;
         }
 
         List<Point> points = quadTree.regionSearch(x, y, width, height);
-        System.out.println("Region search found " + points.size() + " points:");
+        out.println("Region search found " + points.size() + " points:");
         for (Point point : points) {
-            System.out.println(point);
+            out.println(point);
         }
     }
 
@@ -216,16 +252,11 @@ public class PointsDatabase {
      * dupe
      */
     public void duplicates() {
-        // Assuming you've implemented or will implement findDuplicates in
-        // PRQuadTree
         List<Point> duplicates = quadTree.findDuplicates();
-        if (duplicates.isEmpty()) {
-            System.out.println("Duplicate points:");
-            return;
-        }
-
+        out.println("Duplicate points:");
         for (Point duplicate : duplicates) {
-            System.out.println("Duplicate points: " + duplicate);
+            out.println("(" + duplicate.getX() + ", "
+                    + duplicate.getY() + ")");
         }
     }
 
@@ -236,117 +267,100 @@ public class PointsDatabase {
      *             rec
      */
     public void search(String name) {
-        // Directly call the skipList.search(name) which returns
-        // ArrayList<KVPair<String, Point>>
-        List<KVPair<String, Point>> pairs = skipList.search(name);
-
         // Check if the search result is empty
-        if (pairs.isEmpty()) {
-            System.out.println("Point not found: " + name);
+        if (!skipList.contains(name)) {
+            out.println("Point not found: " + name);
             return;
         }
 
-        System.out.println("Search results for '" + name + "':");
-        // Iterate through the list of KVPair<String, Point>, extracting and
-        // printing each Point
-        for (KVPair<String, Point> pair : pairs) {
-            // Extract the Point from the KVPair and print it
-            Point point = pair.getValue(); // Get the Point object from the
-                                           // KVPair
-            System.out.println(point); // Assuming Point class has a meaningful
-                                       // toString() method
-        }
+        out.println("Search results for '" + name + "':");
+        // Hand each KVPair<String, Point> straight to the printer, which
+        // extracts and prints the Point
+        skipList.search(name, printPoint);
     }
 
     /**
      * Dumps
      */
     public void dump() {
-        skipList.dump();
-        quadTree.dump();
+        skipList.dump(out);
+        quadTree.dump(out);
     }
     
     
     /**
      * This method parses keywords in the line and calls methods in the
      * database as required. Each line command will be specified by one of the
-     * keywords to perform the actions.
+     * keywords to perform the actions. The line is split in place, so it
+     * may be a reused view; it is not kept.
      */
-    public void processor(String line) {
-        String[] arr = line.trim().split("\\s+");
-        String command = arr[0].toLowerCase(); 
+    public void processor(CharSequence line) {
+        tokens.resetTrimmed(line);
 
-        switch (command) {
-            case "insert":
-                if (arr.length == 4) { 
-                    try {
-                        String name = arr[1];
-                        int x = Integer.parseInt(arr[2]);
-                        int y = Integer.parseInt(arr[3]);
-                        this.insert(name, x, y); 
-                    } catch (NumberFormatException e) {
-                        System.out.println("Invalid number format for insert command.");
-                    }
-                } else {
-                    System.out.println("Invalid insert command.");
-                }
-                break;
-            case "remove":
-                if (arr.length == 2) {
-                    String name = arr[1];
-                    this.remove(name);
-                } else if (arr.length == 3) {
-                    try {
-                        int x = Integer.parseInt(arr[1]);
-                        int y = Integer.parseInt(arr[2]);
-                        this.remove(x, y);
-                    } catch (NumberFormatException e) {
-                        System.out.println("Invalid number format for remove command.");
-                    }
-                } else {
-                    System.out.println("Invalid remove command.");
-                }
-                break;
-            case "regionsearch":
-                if (arr.length == 5) {
-                    try {
-                        int x = Integer.parseInt(arr[1]);
-                        int y = Integer.parseInt(arr[2]);
-                        int width = Integer.parseInt(arr[3]);
-                        int height = Integer.parseInt(arr[4]);
-                        this.regionSearch(x, y, width, height);
-                    } catch (NumberFormatException e) {
-                        System.out.println("Invalid number format for regionsearch command.");
-                    }
-                } else {
-                    System.out.println("Invalid regionsearch command.");
-                }
-                break;
-            case "duplicates":
-                if (arr.length == 1) {
-                    this.duplicates();
-                } else {
-                    System.out.println("Invalid duplicates command.");
+        if (tokens.isIgnoreCase(0, "insert")) {
+            if (tokens.count() == 4) { 
+                try {
+                    String name = tokens.text(1);
+                    int x = tokens.intAt(2);
+                    int y = tokens.intAt(3);
+                    this.insert(name, x, y); 
+                } catch (NumberFormatException e) {
+                    out.println("Invalid number format for insert command.");
                 }
-                break;
-            case "search":
-                if (arr.length == 2) {
-                    String name = arr[1];
-                    this.search(name);
-                } else {
-                    System.out.println("Invalid search command.");
+            } else {
+                out.println("Invalid insert command.");
+            }
+        } else if (tokens.isIgnoreCase(0, "remove")) {
+            if (tokens.count() == 2) {
+                String name = tokens.text(1);
+                this.remove(name);
+            } else if (tokens.count() == 3) {
+                try {
+                    int x = tokens.intAt(1);
+                    int y = tokens.intAt(2);
+                    this.remove(x, y);
+                } catch (NumberFormatException e) {
+                    out.println("Invalid number format for remove command.");
                 }
-                break;
-            case "dump":
-                if (arr.length == 1) {
-                    this.dump();
-                } else {
-                    System.out.println("Invalid dump command.");
+            } else {
+                out.println("Invalid remove command.");
+            }
+        } else if (tokens.isIgnoreCase(0, "regionsearch")) {
+            if (tokens.count() == 5) {
+                try {
+                    int x = tokens.intAt(1);
+                    int y = tokens.intAt(2);
+                    int width = tokens.intAt(3);
+                    int height = tokens.intAt(4);
+                    this.regionSearch(x, y, width, height);
+                } catch (NumberFormatException e) {
+                    out.println("Invalid number format for regionsearch command.");
                 }
-                break;
-            default:
-                System.out.println("Unrecognized command: " + line);
-                break;
+            } else {
+                out.println("Invalid regionsearch command.");
+            }
+        } else if (tokens.isIgnoreCase(0, "duplicates")) {
+            if (tokens.count() == 1) {
+                this.duplicates();
+            } else {
+                out.println("Invalid duplicates command.");
+            }
+        } else if (tokens.isIgnoreCase(0, "search")) {
+            if (tokens.count() == 2) {
+                String name = tokens.text(1);
+                this.search(name);
+            } else {
+                out.println("Invalid search command.");
+            }
+        } else if (tokens.isIgnoreCase(0, "dump")) {
+            if (tokens.count() == 1) {
+                this.dump();
+            } else {
+                out.println("Invalid dump command.");
+            }
+        } else {
+            out.println("Unrecognized command: " + line);
         }
+        out.endCommand();
     }
 }
@@ -0,0 +1,53 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import student.TestCase;
+
+/**
+ * Tests the PointsDatabase class against the sample command files.
+ *
+ * @author kinjalpandey, architg03
+ * @version 02/28/2024
+ */
+public class PointsDatabaseTest extends TestCase {
+
+    /**
+     * Testing main()
+     * BadPoint.txt prints what BadPointOut.txt expects for every command
+     * before the dump: negative coordinates are rejected, and coordinates
+     * past the world are simply not found
+     *
+     * @throws IOException
+     *             if the sample files cannot be read
+     */
+    public void testBadPoints() throws IOException {
+        PointsDatabase.main(new String[] { "BadPoint.txt" });
+        String expected = new String(Files.readAllBytes(Paths.get(
+            "BadPointOut.txt")), StandardCharsets.US_ASCII).replace("\r\n",
+                "\n");
+        String output = systemOut().getHistory().replace("\r\n", "\n");
+        // the dump formats differ from the sample file, so compare the
+        // lines before it
+        String dump = "SkipList dump:";
+        assertTrue(output.contains(dump));
+        assertEquals(expected.substring(0, expected.indexOf(dump)), output
+            .substring(0, output.indexOf(dump)));
+    }
+
+
+    /**
+     * Testing remove(x, y)
+     * only negative coordinates are rejected
+     */
+    public void testRemoveOutside() {
+        MemoryOutputSink out = new MemoryOutputSink();
+        PointsDatabase db = new PointsDatabase(out);
+        db.remove(-1, 5);
+        db.remove(5, 1024);
+        db.remove(4000, 5);
+        assertEquals("Point rejected: (-1, 5)\n"
+            + "Point not found: (5, 1024)\n"
+            + "Point not found: (4000, 5)\n", out.getHistory());
+    }
+}
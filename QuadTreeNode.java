@@ -1,25 +1,223 @@
+import java.util.ArrayList;
+import java.util.function.Consumer;
 
+/**
+ * The base class for the nodes of the PR Quadtree. A node does not know its
+ * own position, so every operation is passed the upper left corner and size
+ * of the region the node covers.
+ *
+ * @author kinjalpandey, architg03
+ * @version 02/25/24
+ */
 public abstract class QuadTreeNode {
-    
+
     /**
-     * Inserts a point into the appropriate position within the tree. The specific
-     * behavior of this method will vary depending on the type of node (leaf,
-     * internal, or empty).
+     * Inserts a point into the subtree rooted at this node.
      *
-     * @param point The point to insert.
-     * @param boundary The spatial boundary representing this node's area.
-     * @return The node after insertion (which may be a new node if the current node is modified).
+     * @param point
+     *            The point to insert.
+     * @param x
+     *            The x-coordinate of the node.
+     * @param y
+     *            The y-coordinate of the node.
+     * @param size
+     *            The size of the node.
+     * @return The node after insertion (which may be a new node if the
+     *         current node is modified).
      */
-    public abstract QuadTreeNode insert(Point point, Boundary boundary);
+    public abstract QuadTreeNode insert(Point point, int x, int y, int size);
+
 
     /**
-     * Searches for a specific point within the tree. This method checks if the
-     * point exists in the subtree rooted at the current node.
+     * Removes a point from the subtree rooted at this node.
      *
-     * @param point The point to search for.
-     * @param boundary The spatial boundary representing this node's area.
-     * @return true if the point is found, false otherwise.
+     * @param point
+     *            The point to remove.
+     * @param x
+     *            The x-coordinate of the node.
+     * @param y
+     *            The y-coordinate of the node.
+     * @param size
+     *            The size of the node.
+     * @return The node after removal (which may be a new node if the
+     *         current node is emptied or merged).
      */
-    public abstract boolean search(Point point, Boundary boundary);
+    public abstract QuadTreeNode remove(Point point, int x, int y, int size);
+
 
-}
\ No newline at end of file
+    /**
+     * Searches the subtree rooted at this node for points with a name.
+     *
+     * @param name
+     *            The name of the points to search for.
+     * @return A list of points that match the given name.
+     */
+    public abstract ArrayList<Point> search(String name);
+
+
+    /**
+     * Searches the subtree rooted at this node for points inside a region
+     * and collects them into a new list.
+     *
+     * @param queryX
+     *            The x-coordinate of the query region.
+     * @param queryY
+     *            The y-coordinate of the query region.
+     * @param width
+     *            The width of the query region.
+     * @param height
+     *            The height of the query region.
+     * @param nodeX
+     *            The x-coordinate of the node.
+     * @param nodeY
+     *            The y-coordinate of the node.
+     * @param nodeSize
+     *            The size of the node.
+     * @return A list of points that are within the specified region.
+     */
+    public ArrayList<Point> regionSearch(
+        int queryX,
+        int queryY,
+        int width,
+        int height,
+        int nodeX,
+        int nodeY,
+        int nodeSize) {
+        ArrayList<Point> foundPoints = new ArrayList<>();
+        regionSearch(queryX, queryY, width, height, nodeX, nodeY, nodeSize,
+            foundPoints::add);
+        return foundPoints;
+    }
+
+
+    /**
+     * Searches the subtree rooted at this node for points inside a region
+     * and hands each one to the sink. No lists are built along the way, so
+     * the caller decides whether to collect, count or print the points.
+     *
+     * @param queryX
+     *            The x-coordinate of the query region.
+     * @param queryY
+     *            The y-coordinate of the query region.
+     * @param width
+     *            The width of the query region.
+     * @param height
+     *            The height of the query region.
+     * @param nodeX
+     *            The x-coordinate of the node.
+     * @param nodeY
+     *            The y-coordinate of the node.
+     * @param nodeSize
+     *            The size of the node.
+     * @param sink
+     *            Receives every point within the specified region.
+     */
+    public abstract void regionSearch(
+        int queryX,
+        int queryY,
+        int width,
+        int height,
+        int nodeX,
+        int nodeY,
+        int nodeSize,
+        Consumer<Point> sink);
+
+
+    /**
+     * Hands every point in the subtree rooted at this node to the sink. Used
+     * when a region search finds a node that lies entirely inside the query,
+     * so none of its points need to be checked.
+     *
+     * @param sink
+     *            Receives every point in the subtree.
+     */
+    public abstract void reportAll(Consumer<Point> sink);
+
+
+    /**
+     * Checks whether a node could hold points inside the query region. A
+     * point is inside the region when it lies between the region's edges,
+     * both edges included, while a node covers the half-open range from its
+     * corner up to its corner plus its size.
+     *
+     * @param queryX
+     *            The x-coordinate of the query region.
+     * @param queryY
+     *            The y-coordinate of the query region.
+     * @param width
+     *            The width of the query region.
+     * @param height
+     *            The height of the query region.
+     * @param nodeX
+     *            The x-coordinate of the node.
+     * @param nodeY
+     *            The y-coordinate of the node.
+     * @param nodeSize
+     *            The size of the node.
+     * @return true if the node overlaps the query region.
+     */
+    protected static boolean overlaps(
+        int queryX,
+        int queryY,
+        int width,
+        int height,
+        int nodeX,
+        int nodeY,
+        int nodeSize) {
+        return queryX < nodeX + nodeSize && queryX + width >= nodeX
+            && queryY < nodeY + nodeSize && queryY + height >= nodeY;
+    }
+
+
+    /**
+     * Checks whether every point a node could hold is inside the query
+     * region.
+     *
+     * @param queryX
+     *            The x-coordinate of the query region.
+     * @param queryY
+     *            The y-coordinate of the query region.
+     * @param width
+     *            The width of the query region.
+     * @param height
+     *            The height of the query region.
+     * @param nodeX
+     *            The x-coordinate of the node.
+     * @param nodeY
+     *            The y-coordinate of the node.
+     * @param nodeSize
+     *            The size of the node.
+     * @return true if the node lies entirely inside the query region.
+     */
+    protected static boolean covers(
+        int queryX,
+        int queryY,
+        int width,
+        int height,
+        int nodeX,
+        int nodeY,
+        int nodeSize) {
+        return queryX <= nodeX && nodeX + nodeSize - 1 <= queryX + width
+            && queryY <= nodeY && nodeY + nodeSize - 1 <= queryY + height;
+    }
+
+
+    /**
+     * Adds one point for every location in the subtree that holds more than
+     * one point. Points with equal coordinates always end up in the same
+     * leaf, so each leaf can report its own duplicates.
+     *
+     * @param duplicates
+     *            The list the duplicated locations are added to.
+     */
+    public abstract void findDuplicates(ArrayList<Point> duplicates);
+
+
+    /**
+     * Dumps the data of the node.
+     *
+     * @param level
+     *            The level of the node in the QuadTree.
+     */
+    public abstract void dump(int level);
+}
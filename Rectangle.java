@@ -128,6 +128,21 @@ public class Rectangle {
     }
 
 
+    /**
+     * Hashes the coordinates and dimensions, so rectangles that are equal
+     * hash the same.
+     * 
+     * @return the hash code of the rectangle
+     */
+    @Override
+    public int hashCode() {
+        int hash = xCoordinate;
+        hash = 31 * hash + yCoordinate;
+        hash = 31 * hash + width;
+        return 31 * hash + height;
+    }
+
+
     /**
      * Outputs a human readable string with information about the rectangle
      * which includes the x and y coordinate and its height and width
@@ -0,0 +1,313 @@
+import java.util.ArrayList;
+import java.util.Comparator;
+
+/**
+ * A region quadtree over the square world that the Database stores its
+ * rectangles in. Every rectangle is kept in the smallest node whose box
+ * fully contains it, so a rectangle that straddles a node's midlines stays
+ * at that node and everything else is pushed further down. A region search
+ * only visits nodes whose box intersects the query, which keeps it close to
+ * O(log n + k) instead of walking every rectangle in the SkipList.
+ *
+ * The index holds the same KVPair objects as the SkipList, so the Database
+ * must insert and remove pairs in both structures together.
+ *
+ * @author kinjalpandey, architg03
+ * @version 02/28/2024
+ */
+public class RectangleQuadTree {
+
+    // orders results the same way the SkipList iterates them: by name, and
+    // the most recently inserted first among equal names
+    private static final Comparator<Entry> LIST_ORDER = (a, b) -> {
+        int cmp = a.pair.getKey().compareTo(b.pair.getKey());
+        return cmp != 0 ? cmp : Long.compare(b.seq, a.seq);
+    };
+
+    // the root node covering the whole world
+    private Node root;
+    // number of rectangles in the index
+    private int size;
+    // insertion counter used to break ties between equal names
+    private long nextSeq;
+
+    /**
+     * Creates an empty index over a square world of the given size.
+     *
+     * @param worldSize
+     *            the width and height of the world
+     */
+    public RectangleQuadTree(int worldSize) {
+        root = new Node(0, 0, worldSize);
+        size = 0;
+        nextSeq = 0;
+    }
+
+
+    /**
+     * @return the number of rectangles in the index
+     */
+    public int size() {
+        return size;
+    }
+
+
+    /**
+     * Adds a pair to the index. The rectangle is expected to lie inside the
+     * world, which the Database already checks before inserting.
+     *
+     * @param pair
+     *            the pair to add
+     */
+    public void insert(KVPair<String, Rectangle> pair) {
+        Rectangle rect = pair.getValue();
+        Node node = root;
+        int child = node.childFor(rect);
+        while (child >= 0) {
+            if (node.children == null) {
+                node.children = new Node[4];
+            }
+            if (node.children[child] == null) {
+                node.children[child] = node.makeChild(child);
+            }
+            node = node.children[child];
+            child = node.childFor(rect);
+        }
+        node.items.add(new Entry(pair, nextSeq++));
+        size++;
+    }
+
+
+    /**
+     * Removes the given pair from the index. The pair is matched by
+     * reference, so a pair returned by the SkipList removes exactly that
+     * entry even if other rectangles share its name or coordinates.
+     *
+     * @param pair
+     *            the pair to remove
+     * @return true if the pair was found and removed
+     */
+    public boolean remove(KVPair<String, Rectangle> pair) {
+        if (pair == null) {
+            return false;
+        }
+        if (remove(root, pair)) {
+            size--;
+            return true;
+        }
+        return false;
+    }
+
+
+    /**
+     * Removes the pair from the subtree rooted at node, dropping any child
+     * that is left with no rectangles.
+     *
+     * @param node
+     *            the subtree root
+     * @param pair
+     *            the pair to remove
+     * @return true if the pair was removed
+     */
+    private boolean remove(Node node, KVPair<String, Rectangle> pair) {
+        int child = node.childFor(pair.getValue());
+        if (child < 0) {
+            for (int i = 0; i < node.items.size(); i++) {
+                if (node.items.get(i).pair == pair) {
+                    node.items.remove(i);
+                    return true;
+                }
+            }
+            return false;
+        }
+        if (node.children == null || node.children[child] == null) {
+            return false;
+        }
+        if (!remove(node.children[child], pair)) {
+            return false;
+        }
+        if (node.children[child].isEmpty()) {
+            node.children[child] = null;
+        }
+        return true;
+    }
+
+
+    /**
+     * Finds every rectangle that intersects the search area, using the same
+     * rule as Rectangle.intersect (touching edges do not count).
+     *
+     * @param area
+     *            the region to search
+     * @return the matching pairs, in SkipList order
+     */
+    public ArrayList<KVPair<String, Rectangle>> regionSearch(Rectangle area) {
+        ArrayList<Entry> found = new ArrayList<>();
+        regionSearch(root, area, found);
+        found.sort(LIST_ORDER);
+        ArrayList<KVPair<String, Rectangle>> result = new ArrayList<>(found
+            .size());
+        for (Entry entry : found) {
+            result.add(entry.pair);
+        }
+        return result;
+    }
+
+
+    /**
+     * Collects the entries in the subtree that intersect the area.
+     *
+     * @param node
+     *            the subtree root
+     * @param area
+     *            the region to search
+     * @param found
+     *            the list the matches are added to
+     */
+    private void regionSearch(Node node, Rectangle area, ArrayList<Entry> found) {
+        if (!node.intersects(area)) {
+            return;
+        }
+        for (Entry entry : node.items) {
+            if (entry.pair.getValue().intersect(area)) {
+                found.add(entry);
+            }
+        }
+        if (node.children != null) {
+            for (Node child : node.children) {
+                if (child != null) {
+                    regionSearch(child, area, found);
+                }
+            }
+        }
+    }
+
+
+    /**
+     * A pair stored in the index together with its insertion number.
+     */
+    private static class Entry {
+        private final KVPair<String, Rectangle> pair;
+        private final long seq;
+
+        /**
+         * @param pair
+         *            the stored pair
+         * @param seq
+         *            the insertion number
+         */
+        Entry(KVPair<String, Rectangle> pair, long seq) {
+            this.pair = pair;
+            this.seq = seq;
+        }
+    }
+
+
+    /**
+     * A square node of the quadtree. Children are created lazily and are
+     * indexed NW, NE, SW, SE.
+     */
+    private static class Node {
+        private final int x;
+        private final int y;
+        private final int size;
+        private final ArrayList<Entry> items = new ArrayList<>();
+        private Node[] children;
+
+        /**
+         * @param x
+         *            x-coordinate of the node's upper left corner
+         * @param y
+         *            y-coordinate of the node's upper left corner
+         * @param size
+         *            width and height of the node
+         */
+        Node(int x, int y, int size) {
+            this.x = x;
+            this.y = y;
+            this.size = size;
+        }
+
+
+        /**
+         * Finds the child quadrant that fully contains the rectangle.
+         *
+         * @param rect
+         *            the rectangle to place
+         * @return the child index, or -1 if the rectangle belongs here
+         */
+        int childFor(Rectangle rect) {
+            int half = size / 2;
+            if (half == 0) {
+                return -1;
+            }
+            int midX = x + half;
+            int midY = y + half;
+            int left = rect.getxCoordinate();
+            int top = rect.getyCoordinate();
+            int right = left + rect.getWidth();
+            int bottom = top + rect.getHeight();
+            int col;
+            if (right <= midX && left >= x) {
+                col = 0;
+            }
+            else if (left >= midX && right <= x + size) {
+                col = 1;
+            }
+            else {
+                return -1;
+            }
+            if (bottom <= midY && top >= y) {
+                return col;
+            }
+            else if (top >= midY && bottom <= y + size) {
+                return col + 2;
+            }
+            return -1;
+        }
+
+
+        /**
+         * Creates the child node for a quadrant.
+         *
+         * @param child
+         *            the child index
+         * @return the new child node
+         */
+        Node makeChild(int child) {
+            int half = size / 2;
+            return new Node(x + (child % 2) * half, y + (child / 2) * half,
+                half);
+        }
+
+
+        /**
+         * @param area
+         *            the query region
+         * @return true if the area overlaps this node's box
+         */
+        boolean intersects(Rectangle area) {
+            return area.getxCoordinate() < x + size && area.getxCoordinate()
+                + area.getWidth() > x && area.getyCoordinate() < y + size
+                && area.getyCoordinate() + area.getHeight() > y;
+        }
+
+
+        /**
+         * @return true if neither this node nor any child holds a rectangle
+         */
+        boolean isEmpty() {
+            if (!items.isEmpty()) {
+                return false;
+            }
+            if (children != null) {
+                for (Node child : children) {
+                    if (child != null) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+    }
+}
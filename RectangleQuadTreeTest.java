@@ -0,0 +1,88 @@
+import java.util.ArrayList;
+import student.TestCase;
+
+/**
+ * Tests the RectangleQuadTree class that the Database uses to answer region
+ * searches.
+ *
+ * @author kinjalpandey, architg03
+ * @version 02/28/2024
+ */
+public class RectangleQuadTreeTest extends TestCase {
+
+    private RectangleQuadTree tree;
+    private KVPair<String, Rectangle> small;
+    private KVPair<String, Rectangle> straddle;
+    private KVPair<String, Rectangle> far;
+
+    /**
+     * Sets up the test cases
+     */
+    public void setUp() {
+        tree = new RectangleQuadTree(1024);
+        small = new KVPair<>("b", new Rectangle(10, 10, 5, 5));
+        straddle = new KVPair<>("a", new Rectangle(500, 500, 50, 50));
+        far = new KVPair<>("c", new Rectangle(900, 900, 20, 20));
+    }
+
+
+    /**
+     * Testing regionSearch()
+     * should only return intersecting rectangles, in name order
+     */
+    public void testRegionSearch() {
+        tree.insert(small);
+        tree.insert(straddle);
+        tree.insert(far);
+        assertEquals(3, tree.size());
+
+        ArrayList<KVPair<String, Rectangle>> found = tree.regionSearch(
+            new Rectangle(0, 0, 600, 600));
+        assertEquals(2, found.size());
+        assertSame(straddle, found.get(0));
+        assertSame(small, found.get(1));
+
+        // touching an edge does not count as intersecting
+        assertTrue(tree.regionSearch(new Rectangle(15, 0, 5, 100)).isEmpty());
+        // regions may reach outside the world
+        assertEquals(1, tree.regionSearch(new Rectangle(910, 910, 500, 500))
+            .size());
+    }
+
+
+    /**
+     * Testing regionSearch()
+     * equal names should come back most recent first like the SkipList
+     */
+    public void testRegionSearchDuplicateNames() {
+        KVPair<String, Rectangle> later = new KVPair<>("b", new Rectangle(20,
+            20, 5, 5));
+        tree.insert(small);
+        tree.insert(later);
+        ArrayList<KVPair<String, Rectangle>> found = tree.regionSearch(
+            new Rectangle(0, 0, 100, 100));
+        assertSame(later, found.get(0));
+        assertSame(small, found.get(1));
+    }
+
+
+    /**
+     * Testing remove()
+     * should remove exactly the pair passed in
+     */
+    public void testRemove() {
+        KVPair<String, Rectangle> twin = new KVPair<>("b", new Rectangle(10,
+            10, 5, 5));
+        tree.insert(small);
+        tree.insert(twin);
+        assertTrue(tree.remove(twin));
+        assertFalse(tree.remove(twin));
+        assertFalse(tree.remove(null));
+        assertFalse(tree.remove(far));
+        assertEquals(1, tree.size());
+        ArrayList<KVPair<String, Rectangle>> found = tree.regionSearch(
+            new Rectangle(0, 0, 100, 100));
+        assertEquals(1, found.size());
+        assertSame(small, found.get(0));
+    }
+}
@@ -339,4 +339,17 @@ public class RectangleTest extends TestCase {
         assertFalse(rect1.equals(differentHeight));
     }
 
+
+    /**
+     * testing hashCode()
+     * equal rectangles should hash the same
+     */
+    public void testHashCode() {
+        Rectangle same = new Rectangle(rect1.getxCoordinate(), rect1
+            .getyCoordinate(), rect1.getWidth(), rect1.getHeight());
+        assertEquals(rect1.hashCode(), same.hashCode());
+        assertFalse(new Rectangle(1, 2, 3, 4).hashCode() == new Rectangle(4, 3,
+            2, 1).hashCode());
+    }
+
 }
@@ -1,7 +1,11 @@
-import java.lang.reflect.Array;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.NoSuchElementException;
 import java.util.Random;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 import student.TestableRandom;
 
 /**
@@ -21,6 +25,14 @@ public class SkipList<K extends Comparable<? super K>, V>
     private SkipNode head; // First element (Sentinel Node)
     private int size; // number of entries in the Skip List
     private Random rng;
+    // the nodes holding each value, so removal by value needs no scan;
+    // null until removeByValue is first called, so lists that never remove
+    // by value pay nothing for it on insert
+    private HashMap<V, ArrayList<SkipNode>> byValue;
+    // the finger: the update path left by the last descent, the last node
+    // before that key on each level, and the position of each of them
+    private SkipNode[] finger;
+    private int[] fingerRank;
 
     /**
      * Initializes the fields head, size and level
@@ -29,6 +41,9 @@ public class SkipList<K extends Comparable<? super K>, V>
         head = new SkipNode(null, 0);
         size = 0;
         this.rng = new TestableRandom();
+        finger = newNodeArray(1);
+        finger[0] = head;
+        fingerRank = new int[1];
     }
 
     /**
@@ -56,20 +71,130 @@ public class SkipList<K extends Comparable<? super K>, V>
      */
     public ArrayList<KVPair<K, V>> search(K key) {
         ArrayList<KVPair<K, V>> result = new ArrayList<>();
+        search(key, result::add);
+        return result;
+    }
+
+    /**
+     * Hands every pair with the given key to a sink, in list order, without
+     * collecting them first. Nothing is allocated here, so a miss costs
+     * only the descent, and a hit costs one descent plus one step per pair.
+     * 
+     * @param key
+     *            key to be searched for
+     * @param sink
+     *            receives each pair with the key
+     * @return the number of pairs handed to the sink
+     */
+    public int search(K key, Consumer<? super KVPair<K, V>> sink) {
+        descend(key);
+        int found = 0;
+        SkipNode node = finger[0].forward[0];
+        if (node != null && node.element().getKey().compareTo(key) == 0) {
+            // every pair with the key is in this one node
+            for (; found < node.count; found++) {
+                sink.accept(node.pairAt(found));
+            }
+        }
+        return found;
+    }
+
+    /**
+     * @param key
+     *            key to be searched for
+     * @return true if some pair has the key
+     */
+    public boolean contains(K key) {
+        SkipNode node = firstAtLeast(key);
+        return node != null && node.element().getKey().compareTo(key) == 0;
+    }
+
+    /**
+     * Finds the pair with the greatest key that is less than or equal to the
+     * key passed in. Among pairs with that key, the last one in list order
+     * is returned.
+     * 
+     * @param key
+     *            the key to look up
+     * @return the floor pair, or null if every key is greater than key
+     */
+    public KVPair<K, V> floor(K key) {
+        long keyPrefix = prefixOf(key);
         SkipNode current = head;
         for (int i = head.level; i >= 0; i--) {
-            while (current.forward[i] != null && current.forward[i].element()
-                    .getKey().compareTo(key) < 0) {
+            while (current.forward[i] != null && compare(current.forward[i],
+                    key, keyPrefix) <= 0) {
                 current = current.forward[i];
             }
         }
-        current = current.forward[0];
-        while (current != null && current.element().getKey().compareTo(
-                key) == 0) {
-            result.add(current.element());
-            current = current.forward[0];
+        return current == head ? null : current.pairAt(current.count - 1);
+    }
+
+    /**
+     * Finds the first pair in list order whose key is greater than or equal
+     * to the key passed in.
+     * 
+     * @param key
+     *            the key to look up
+     * @return the ceiling pair, or null if every key is less than key
+     */
+    public KVPair<K, V> ceiling(K key) {
+        SkipNode node = firstAtLeast(key);
+        return node == null ? null : node.element();
+    }
+
+    /**
+     * Returns the pairs whose keys lie between from (included) and to
+     * (excluded), in list order. Nothing is copied: each iterator descends
+     * once to the first node in range and then walks the bottom level,
+     * stopping at the first key past the range.
+     * 
+     * @param from
+     *            the lowest key to include, or null to start at the front
+     * @param to
+     *            the first key to leave out, or null to run to the end
+     * @return the pairs in the range
+     */
+    public Iterable<KVPair<K, V>> subRange(K from, K to) {
+        return () -> new RangeIterator(from == null
+                ? head.forward[0]
+                : firstAtLeast(from), k -> to == null || k.compareTo(to) < 0);
+    }
+
+    /**
+     * Returns the pairs whose keys start with the given prefix, in list
+     * order, streaming them the same way as subRange. Only SkipLists keyed
+     * by Strings can be scanned by prefix, since the prefix is compared
+     * against the keys directly.
+     * 
+     * @param prefix
+     *            the prefix the keys must start with
+     * @return the pairs whose keys start with the prefix
+     * @throws IllegalStateException
+     *             if the keys are not Strings
+     */
+    @SuppressWarnings("unchecked")
+    public Iterable<KVPair<K, V>> prefixScan(String prefix) {
+        if (size > 0 && !(head.forward[0].element().getKey()
+            instanceof String)) {
+            throw new IllegalStateException("Only String keys can be scanned "
+                + "by prefix");
         }
-        return result;
+        K start = (K) prefix;
+        return () -> new RangeIterator(firstAtLeast(start), k -> k.toString()
+                .startsWith(prefix));
+    }
+
+    /**
+     * Descends to the first node whose key is greater than or equal to key.
+     * 
+     * @param key
+     *            the key to look up
+     * @return the node, or null if every key is less than key
+     */
+    private SkipNode firstAtLeast(K key) {
+        descend(key);
+        return finger[0].forward[0];
     }
 
     /**
@@ -81,35 +206,336 @@ public class SkipList<K extends Comparable<? super K>, V>
 
     /**
      * Inserts the KVPair in the SkipList at its appropriate spot as designated
-     * by its lexicoragraphical order.
+     * by its lexicoragraphical order. A null pair is ignored.
      * 
      * @param it
      *           the KVPair to be inserted
      */
     @SuppressWarnings("unchecked")
     public void insert(KVPair<K, V> it) {
+        if (it == null) {
+            return;
+        }
         int newLevel = randomLevel();
         if (newLevel > head.level) {
             adjustHead(newLevel);
         }
-        SkipNode[] update = (SkipNode[]) Array.newInstance(
-                SkipList.SkipNode.class, head.level + 1);
-        SkipNode x = head;
-        for (int i = head.level; i >= 0; i--) {
-            while (x.forward[i] != null && x.forward[i].element().getKey()
-                    .compareTo(it.getKey()) < 0) {
-                x = x.forward[i];
+        descend(it.getKey());
+        SkipNode[] update = finger;
+        int[] rank = fingerRank;
+        SkipNode x = update[0].forward[0];
+        if (x != null && x.element().getKey().compareTo(it.getKey()) == 0) {
+            // the key is already here, so the pair joins its node, and every
+            // link over the node's spot now jumps one more pair
+            int oldLevel = x.level;
+            x.add(it, newLevel);
+            for (int i = 0; i <= head.level; i++) {
+                update[i].span[i]++;
             }
-            update[i] = x;
+            if (newLevel > oldLevel) {
+                raise(x, oldLevel);
+            }
+            index(it.getValue(), x);
+            size++;
+            return;
         }
         x = new SkipNode(it, newLevel);
         for (int i = 0; i <= newLevel; i++) {
             x.forward[i] = update[i].forward[i];
             update[i].forward[i] = x;
+            // split the span that used to jump over the new node's spot
+            x.span[i] = update[i].span[i] - (rank[0] - rank[i]);
+            update[i].span[i] = rank[0] - rank[i] + 1;
+        }
+        for (int i = newLevel + 1; i <= head.level; i++) {
+            update[i].span[i]++;
         }
+        index(it.getValue(), x);
         size++;
     }
 
+    /**
+     * Links a node that has just grown taller into the levels above its old
+     * top. The finger must hold the path to the node's key.
+     * 
+     * @param x
+     *            the node, with its new level already set
+     * @param oldLevel
+     *            the node's level before it grew
+     */
+    private void raise(SkipNode x, int oldLevel) {
+        int pos = fingerRank[0] + x.count;
+        for (int i = oldLevel + 1; i <= x.level; i++) {
+            x.forward[i] = finger[i].forward[i];
+            finger[i].forward[i] = x;
+            x.span[i] = finger[i].span[i] - (pos - fingerRank[i]);
+            finger[i].span[i] = pos - fingerRank[i];
+        }
+    }
+
+    /**
+     * Unlinks a node that has just shrunk from the levels above its new top.
+     * The finger must hold the path to the node's key.
+     * 
+     * @param x
+     *            the node, with its new level already set
+     * @param oldLevel
+     *            the node's level before it shrank
+     */
+    private void lower(SkipNode x, int oldLevel) {
+        for (int i = x.level + 1; i <= oldLevel; i++) {
+            finger[i].span[i] += x.span[i];
+            finger[i].forward[i] = x.forward[i];
+            x.forward[i] = null;
+        }
+    }
+
+    /**
+     * Inserts every pair in the order given, leaving the SkipList exactly as
+     * calling insert on each pair would, with the same random level drawn
+     * for each pair in the same order. When the SkipList starts out empty,
+     * the leading run of pairs whose keys never decrease is built in one
+     * linear pass with no descents, so a fully sorted input loads in O(n).
+     * Any pairs after that run are inserted one at a time. Null pairs are
+     * ignored, as with insert.
+     * 
+     * @param pairs
+     *            the KVPairs to be inserted, in insertion order
+     */
+    public void insertAll(ArrayList<KVPair<K, V>> pairs) {
+        int sorted = 0;
+        if (size == 0) {
+            KVPair<K, V> last = null;
+            while (sorted < pairs.size() && pairs.get(sorted) != null
+                    && (last == null || last.getKey().compareTo(pairs.get(
+                            sorted).getKey()) <= 0)) {
+                last = pairs.get(sorted);
+                sorted++;
+            }
+            buildSorted(pairs, sorted);
+        }
+        for (int i = sorted; i < pairs.size(); i++) {
+            insert(pairs.get(i));
+        }
+    }
+
+    /**
+     * Builds an empty SkipList from the first count pairs, whose keys must
+     * not decrease. Every level keeps track of its last node, so each run
+     * of equal keys is gathered into one node, newest first as insert
+     * would leave them, and the node is linked in at the end of the levels
+     * its tower reaches.
+     * 
+     * @param pairs
+     *            the KVPairs in insertion order
+     * @param count
+     *            the number of leading pairs to build from
+     */
+    private void buildSorted(ArrayList<KVPair<K, V>> pairs, int count) {
+        if (count == 0) {
+            return;
+        }
+        // draw every level first, in insertion order, so the head only has
+        // to grow once
+        int[] levels = new int[count];
+        int top = head.level;
+        for (int i = 0; i < count; i++) {
+            levels[i] = randomLevel();
+            top = Math.max(top, levels[i]);
+        }
+        if (top > head.level) {
+            adjustHead(top);
+        }
+        SkipNode[] tail = newNodeArray(top + 1);
+        Arrays.fill(tail, head);
+        int i = 0;
+        while (i < count) {
+            KVPair<K, V> first = pairs.get(i);
+            SkipNode x = new SkipNode(first, levels[i]);
+            index(first.getValue(), x);
+            for (i++; i < count && pairs.get(i).getKey().compareTo(first
+                    .getKey()) == 0; i++) {
+                x.add(pairs.get(i), levels[i]);
+                index(pairs.get(i).getValue(), x);
+            }
+            for (int l = 0; l <= x.level; l++) {
+                tail[l].forward[l] = x;
+                tail[l] = x;
+            }
+            size += x.count;
+        }
+        computeSpans();
+    }
+
+    /**
+     * Sets every span from scratch in one walk along the bottom level, in
+     * which each level remembers its last node and that node's position.
+     * A node's position is that of its last pair.
+     */
+    private void computeSpans() {
+        SkipNode[] last = newNodeArray(head.level + 1);
+        int[] lastRank = new int[head.level + 1];
+        Arrays.fill(last, head);
+        int r = 0;
+        for (SkipNode x = head.forward[0]; x != null; x = x.forward[0]) {
+            r += x.count;
+            for (int l = 0; l <= x.level; l++) {
+                last[l].span[l] = r - lastRank[l];
+                last[l] = x;
+                lastRank[l] = r;
+            }
+        }
+        for (int l = 0; l <= head.level; l++) {
+            last[l].span[l] = size - lastRank[l];
+        }
+    }
+
+    /**
+     * Descends to the spot for a key, leaving in the finger the last node
+     * before the key on each level and that node's position in the list,
+     * which is the number of pairs up to and including the node.
+     * 
+     * The descent starts from the finger left by the previous one rather
+     * than from the top of the head. Going up from the bottom, the first
+     * level whose finger node is still before the key and whose next node
+     * is not is where the paths part: every level from there up already
+     * holds the right node, so only the levels below are searched, each
+     * starting from its old finger node whenever that is further along.
+     * When keys arrive in nearly sorted order the paths part low down, so
+     * most operations cost a few steps instead of a full descent.
+     * 
+     * @param key
+     *            the key to descend to
+     */
+    private void descend(K key) {
+        long keyPrefix = prefixOf(key);
+        int top = head.level;
+        int split = 0;
+        while (split <= top && !(before(finger[split], key, keyPrefix)
+                && !before(finger[split].forward[split], key, keyPrefix))) {
+            split++;
+        }
+        SkipNode x = split <= top ? finger[split] : head;
+        int r = split <= top ? fingerRank[split] : 0;
+        for (int i = Math.min(split, top + 1) - 1; i >= 0; i--) {
+            if (fingerRank[i] > r && before(finger[i], key, keyPrefix)) {
+                x = finger[i];
+                r = fingerRank[i];
+            }
+            while (x.forward[i] != null && compare(x.forward[i], key,
+                    keyPrefix) < 0) {
+                r += x.span[i];
+                x = x.forward[i];
+            }
+            finger[i] = x;
+            fingerRank[i] = r;
+        }
+    }
+
+    /**
+     * @param node
+     *            a node in the list, or null past the end
+     * @param key
+     *            the key to compare against
+     * @param keyPrefix
+     *            the packed prefix of key
+     * @return true if the node is the head or holds a smaller key
+     */
+    private boolean before(SkipNode node, K key, long keyPrefix) {
+        return node == head || (node != null && compare(node, key,
+                keyPrefix) < 0);
+    }
+
+    /**
+     * Compares a node's key with a key, looking at the packed prefixes
+     * first. Only when those are equal are the keys themselves compared,
+     * and for String keys whose prefixes hold their first characters
+     * exactly, only from the ninth character on, so keys that share a long
+     * start such as "rectangle" + n do not pay for it twice.
+     * 
+     * @param node
+     *            a node holding pairs
+     * @param key
+     *            the key to compare against
+     * @param keyPrefix
+     *            the packed prefix of key
+     * @return less than, equal to or greater than 0 as the node's key is
+     *         less than, equal to or greater than key
+     */
+    private int compare(SkipNode node, K key, long keyPrefix) {
+        if (node.prefix != keyPrefix) {
+            return node.prefix < keyPrefix ? -1 : 1;
+        }
+        K nodeKey = node.element().getKey();
+        // a last byte of 0xFF only comes from the fill after a character
+        // that did not fit, and then the tie says less about the keys
+        if ((keyPrefix & 0xFF) != 0xFF && key instanceof String
+                && nodeKey instanceof String) {
+            return compareFrom((String) nodeKey, (String) key, 8);
+        }
+        return nodeKey.compareTo(key);
+    }
+
+    /**
+     * Compares two Strings the way compareTo does, given that they agree
+     * on every character before from that both of them have.
+     * 
+     * @param a
+     *            the first String
+     * @param b
+     *            the second String
+     * @param from
+     *            where the Strings may first differ
+     * @return less than, equal to or greater than 0 as a is less than,
+     *         equal to or greater than b
+     */
+    private static int compareFrom(String a, String b, int from) {
+        int n = Math.min(a.length(), b.length());
+        for (int i = from; i < n; i++) {
+            char ca = a.charAt(i);
+            char cb = b.charAt(i);
+            if (ca != cb) {
+                return ca - cb;
+            }
+        }
+        return a.length() - b.length();
+    }
+
+    /**
+     * Packs the first eight characters of a String key into a long whose
+     * order matches the order of the keys wherever two prefixes differ, so
+     * most steps of a descent compare two longs instead of two Strings.
+     * Each character takes a byte, big-endian, and the end of a short key
+     * reads as 0. A character of 0xFF or more does not fit, so it and every
+     * byte after it become 0xFF and any tie there is left to the full
+     * comparison. Keys that are not Strings all get the same prefix and are
+     * always compared in full.
+     * 
+     * @param key
+     *            the key
+     * @return the prefix, offset so that signed order is byte order
+     */
+    private static long prefixOf(Object key) {
+        if (!(key instanceof String)) {
+            return 0;
+        }
+        String s = (String) key;
+        int n = Math.min(8, s.length());
+        long packed = 0;
+        int i = 0;
+        while (i < n && s.charAt(i) < 0xFF) {
+            packed = packed << 8 | s.charAt(i);
+            i++;
+        }
+        if (i < n) {
+            packed = packed << (8 * (8 - i)) | -1L >>> (8 * i);
+        }
+        else if (n < 8) {
+            packed <<= 8 * (8 - n);
+        }
+        return packed ^ Long.MIN_VALUE;
+    }
+
     /**
      * Increases the number of levels in head so that no element has more
      * indices than the head.
@@ -122,8 +548,26 @@ public class SkipList<K extends Comparable<? super K>, V>
         head = new SkipNode(null, newLevel);
         for (int i = 0; i <= temp.level; i++) {
             head.forward[i] = temp.forward[i];
+            head.span[i] = temp.span[i];
+        }
+        // a new level is empty, so it spans every pair in the list
+        for (int i = temp.level + 1; i <= newLevel; i++) {
+            head.span[i] = size;
         }
         head.level = newLevel;
+        // point the finger at the new head, and start the new levels there;
+        // finger levels above the old top may be left over from before the
+        // head last shrank, so they are reset too
+        if (finger.length <= newLevel) {
+            finger = Arrays.copyOf(finger, newLevel + 1);
+            fingerRank = Arrays.copyOf(fingerRank, newLevel + 1);
+        }
+        for (int i = 0; i <= newLevel; i++) {
+            if (i > temp.level || finger[i] == temp) {
+                finger[i] = head;
+                fingerRank[i] = 0;
+            }
+        }
     }
 
     /**
@@ -140,110 +584,369 @@ public class SkipList<K extends Comparable<? super K>, V>
      *         found
      *         or invalid.
      */
-    @SuppressWarnings("unchecked")
     public KVPair<K, V> remove(K key) {
+        return removeFirst(key);
+    }
+
+    /**
+     * Removes the first KVPair (in list order) whose key matches the key
+     * passed in. The node is found in a single descent, so callers do not
+     * need to search for the pair beforehand.
+     *
+     * @param key
+     *            Key of the KVPair to remove.
+     * @return the removed KVPair, or null if no pair has that key
+     */
+    public KVPair<K, V> removeFirst(K key) {
         if (key == null) {
             return null;
         }
 
-        // Use Object array for update references
-        Object[] update = new Object[head.level + 1];
-        SkipNode current = head;
-
         // Traverse the list to find the target node and keep track of the
         // update path
-        for (int i = head.level; i >= 0; i--) {
-            while (current.forward[i] != null && current.forward[i].element()
-                    .getKey().compareTo(key) < 0) {
-                current = current.forward[i];
-            }
-            update[i] = current;
-        }
-
-        // Move to the next node, which might be the node to remove
-        current = current.forward[0];
+        descend(key);
 
-        // If it's the target node, update the forward references of the nodes
-        // in the update path
+        // Move to the next node, which might hold the pair to remove
+        SkipNode current = finger[0].forward[0];
         if (current != null && current.element().getKey().compareTo(key) == 0) {
-            for (int i = 0; i <= head.level; i++) {
-                if (((SkipNode) update[i]).forward[i] != current)
-                    break;
-                ((SkipNode) update[i]).forward[i] = current.forward[i];
-            }
-
-            // Adjust the head level if necessary
-            while (head.level > 0 && head.forward[head.level] == null) {
-                head.level--;
-            }
-            size--;
-            return current.element();
+            return removeAt(current, 0);
         }
 
         return null;
     }
 
     /**
-     * Removes a KVPair with the specified value.
+     * Removes the KVPair with the given key whose value equals the value
+     * passed in. The descent stops just before the node holding the key, so
+     * only that node's pairs are looked through.
+     *
+     * @param key
+     *            Key of the KVPair to remove.
+     * @param value
+     *            Value of the KVPair to remove.
+     * @return the removed KVPair, or null if no such pair is in the list
+     */
+    public KVPair<K, V> remove(K key, V value) {
+        if (key == null || value == null) {
+            return null;
+        }
+        descend(key);
+
+        SkipNode current = finger[0].forward[0];
+        if (current == null || current.element().getKey().compareTo(
+                key) != 0) {
+            return null;
+        }
+        int index = current.indexOf(value);
+        return index < 0 ? null : removeAt(current, index);
+    }
+
+    /**
+     * Removes a KVPair with the specified value. The node is found through
+     * the reverse index instead of a scan, and the pair is then removed
+     * after one descent by its key. If several pairs hold an equal value,
+     * the one with the smallest key is removed, and among pairs that also
+     * share that key, the one inserted first. That is the last of them in
+     * list order, since equal keys are kept newest first, so a scan of the
+     * list would have found a different one. The first call builds the
+     * index in one walk of the list, and inserts and removes keep it up to
+     * date from then on.
      * 
      * @param val
      *            the value of the KVPair to be removed
-     * @return returns true if the removal was successful
+     * @return the removed KVPair, or null if no pair holds that value
      */
     public KVPair<K, V> removeByValue(V val) {
         if (val == null) {
             return null;
         }
+        if (byValue == null) {
+            buildIndex();
+        }
+        ArrayList<SkipNode> nodes = byValue.get(val);
+        if (nodes == null) {
+            return null;
+        }
+        SkipNode target = nodes.get(0);
+        for (int i = 1; i < nodes.size(); i++) {
+            if (nodes.get(i).element().getKey().compareTo(target.element()
+                    .getKey()) < 0) {
+                target = nodes.get(i);
+            }
+        }
+        descend(target.element().getKey());
+        return removeAt(target, target.lastIndexOf(val));
+    }
 
-        SkipNode previous = null;
-        SkipNode current = head.forward[0]; // Start from the first actual node
-                                            // after head
+    /**
+     * Removes one pair from a node. The last pair takes the whole node out
+     * of the list; otherwise every link over the node's spot jumps one pair
+     * fewer, and the tower comes down if the pair that set its height is
+     * gone. The finger must hold the path to the node's key.
+     * 
+     * @param node
+     *            the node holding the pair
+     * @param index
+     *            the place of the pair among the node's pairs
+     * @return the removed pair
+     */
+    private KVPair<K, V> removeAt(SkipNode node, int index) {
+        KVPair<K, V> removed = node.pairAt(index);
+        if (node.count == 1) {
+            unlink(node);
+        }
+        else {
+            node.removeAt(index);
+            for (int i = 0; i <= head.level; i++) {
+                finger[i].span[i]--;
+            }
+            int oldLevel = node.level;
+            node.level = node.maxLevel();
+            lower(node, oldLevel);
+        }
+        finishRemove(node, removed);
+        return removed;
+    }
 
-        while (current != null) {
-            // Check if the current node's value matches the value to be removed
-            if (current.element().getValue().equals(val)) {
-                // Found the node to remove
-                if (previous == null) {
-                    // If the matching node is the first node after head
-                    head.forward[0] = current.forward[0];
-                } else {
-                    // If the matching node is not the first node
-                    previous.forward[0] = current.forward[0];
-                }
-                size--; // Decrement the size of the skip list
-                return current.element(); // Return the removed KVPair
+    /**
+     * Unlinks a node holding a single pair from every level it is on and
+     * shortens every span that jumped over it. Keys are never shared
+     * between nodes, so on each level the finger node either links to the
+     * target or jumps over it. The finger must hold the path to the
+     * target's key.
+     * 
+     * @param target
+     *            the node to unlink
+     */
+    private void unlink(SkipNode target) {
+        for (int i = 0; i <= head.level; i++) {
+            SkipNode prev = finger[i];
+            if (prev.forward[i] == target) {
+                prev.span[i] += target.span[i] - 1;
+                prev.forward[i] = target.forward[i];
             }
-            // Move to the next node
-            previous = current;
-            current = current.forward[0];
+            else {
+                prev.span[i]--;
+            }
+        }
+    }
+
+    /**
+     * Updates the head level, the reverse index and the size after a pair
+     * has been removed.
+     * 
+     * @param node
+     *            the node the pair was removed from
+     * @param removed
+     *            the pair that was removed
+     */
+    private void finishRemove(SkipNode node, KVPair<K, V> removed) {
+        while (head.level > 0 && head.forward[head.level] == null) {
+            head.level--;
         }
+        if (byValue != null) {
+            V value = removed.getValue();
+            ArrayList<SkipNode> nodes = byValue.get(value);
+            nodes.remove(node);
+            if (nodes.isEmpty()) {
+                byValue.remove(value);
+            }
+        }
+        size--;
+    }
 
-        // If no matching value is found
-        return null;
+    /**
+     * Records that a node holds a pair with the given value, if the reverse
+     * index has been built.
+     * 
+     * @param value
+     *            the value of the pair
+     * @param node
+     *            the node holding the pair
+     */
+    private void index(V value, SkipNode node) {
+        if (byValue != null) {
+            byValue.computeIfAbsent(value, v -> new ArrayList<>(1)).add(node);
+        }
+    }
+
+    /**
+     * Builds the reverse index in one walk along the bottom level, the
+     * first time a pair is removed by value.
+     */
+    private void buildIndex() {
+        byValue = new HashMap<>();
+        for (SkipNode x = head.forward[0]; x != null; x = x.forward[0]) {
+            for (int j = 0; j < x.count; j++) {
+                index(x.pairAt(j).getValue(), x);
+            }
+        }
+    }
+
+    /**
+     * Counts the pairs whose keys are less than the key passed in, which is
+     * also the position get would give the first pair with that key.
+     * 
+     * @param key
+     *            the key to rank
+     * @return the number of pairs with a smaller key
+     */
+    public int rank(K key) {
+        descend(key);
+        return fingerRank[0];
+    }
+
+    /**
+     * Returns the pair at a position in list order, following the spans
+     * down from the head instead of walking the bottom level.
+     * 
+     * @param index
+     *            the position, from 0 to size - 1
+     * @return the pair at that position
+     * @throws IndexOutOfBoundsException
+     *             if there is no pair at that position
+     */
+    public KVPair<K, V> get(int index) {
+        descendTo(index);
+        return finger[0].forward[0].pairAt(index - fingerRank[0]);
+    }
+
+    /**
+     * Counts the pairs whose keys lie between from (included) and to
+     * (excluded), the same range as subRange, without visiting them.
+     * 
+     * @param from
+     *            the lowest key to count, or null to start at the front
+     * @param to
+     *            the first key to leave out, or null to run to the end
+     * @return the number of pairs in the range
+     */
+    public int countRange(K from, K to) {
+        int start = from == null ? 0 : rank(from);
+        int end = to == null ? size : rank(to);
+        return Math.max(0, end - start);
+    }
+
+    /**
+     * Descends by position instead of by key, leaving in the finger the
+     * last node on each level whose pairs all come before a position. The
+     * next node on the bottom level then holds the pair at that position,
+     * and the finger is the path to that node's key.
+     * 
+     * @param index
+     *            the position, from 0 to size - 1
+     * @throws IndexOutOfBoundsException
+     *             if there is no pair at that position
+     */
+    private void descendTo(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index
+                    + ", Size: " + size);
+        }
+        SkipNode x = head;
+        int r = 0;
+        for (int i = head.level; i >= 0; i--) {
+            while (x.forward[i] != null && r + x.span[i] <= index) {
+                r += x.span[i];
+                x = x.forward[i];
+            }
+            finger[i] = x;
+            fingerRank[i] = r;
+        }
+    }
+
+    /**
+     * Prints one page of the SkipList in the same format as dump, so a large
+     * list can be looked at a piece at a time. The page is found through
+     * the spans, so earlier pages are not walked.
+     * 
+     * @param first
+     *            the position of the first pair to print
+     * @param count
+     *            the largest number of pairs to print
+     */
+    public void dump(int first, int count) {
+        dump(first, count, OutputSink.CONSOLE);
+    }
+
+    /**
+     * Prints one page of the SkipList to the given sink.
+     * 
+     * @param first
+     *            the position of the first pair to print
+     * @param count
+     *            the largest number of pairs to print
+     * @param out
+     *            where to print
+     */
+    public void dump(int first, int count, OutputSink out) {
+        out.println("SkipList dump:");
+        out.println("Node has depth " + (head.level + 1) + ", Value null");
+        if (first >= 0 && first < size) {
+            descendTo(first);
+            SkipNode current = finger[0].forward[0];
+            int j = first - fingerRank[0];
+            for (int i = 0; i < count && current != null; i++) {
+                out.println("Node has depth " + (current.levelAt(j) + 1)
+                        + ", value " + "(" + current.pairAt(j) + ")");
+                if (++j == current.count) {
+                    current = current.forward[0];
+                    j = 0;
+                }
+            }
+        }
+        out.println("SkipList size is: " + size);
     }
 
     /**
      * Prints out the SkipList in a human readable format to the console.
      */
     public void dump() {
-        System.out.println("SkipList dump:");
-        System.out.println("Node has depth " + (head.level + 1)
-                + ", Value null");
+        dump(OutputSink.CONSOLE);
+    }
+
+    /**
+     * Prints out the SkipList in a human readable format to the given sink.
+     * 
+     * @param out
+     *            where to print
+     */
+    public void dump(OutputSink out) {
+        out.println("SkipList dump:");
+        out.println("Node has depth " + (head.level + 1) + ", Value null");
         if (size == 0) {
-            System.out.println("SkipList size is: 0");
+            out.println("SkipList size is: 0");
             return;
         }
         SkipNode current = head.forward[0];
         while (current != null) {
-            System.out.println("Node has depth " + (current.level + 1)
-                    + ", value " + "(" + current.element() + ")");
+            // each pair shows the depth drawn for it, as if it had a tower
+            // of its own
+            for (int j = 0; j < current.count; j++) {
+                out.println("Node has depth " + (current.levelAt(j) + 1)
+                        + ", value " + "(" + current.pairAt(j) + ")");
+            }
             current = current.forward[0];
         }
-        System.out.println("SkipList size is: " + size);
+        out.println("SkipList size is: " + size);
+    }
+
+    /**
+     * Makes an array of nodes directly rather than through reflection.
+     * 
+     * @param length
+     *            the length of the array
+     * @return the new array
+     */
+    @SuppressWarnings("unchecked")
+    private SkipNode[] newNodeArray(int length) {
+        return (SkipNode[]) new SkipList<?, ?>.SkipNode[length];
     }
 
     /**
-     * This class implements a SkipNode for the SkipList data structure.
+     * This class implements a SkipNode for the SkipList data structure. A
+     * node holds every pair with its key, newest first, and its tower is as
+     * tall as the tallest level drawn for any of them.
      * 
      * @author CS Staff
      * 
@@ -251,10 +954,24 @@ public class SkipList<K extends Comparable<? super K>, V>
      */
     private class SkipNode {
 
-        // the KVPair to hold
+        // the oldest KVPair with this key, which comes last in list order
         private KVPair<K, V> pair;
+        // the level drawn for pair
+        private int pairLevel;
+        // KVPairs with this key inserted after pair, oldest first; null
+        // until a second pair arrives
+        private KVPair<K, V>[] newer;
+        // the level drawn for each of the newer pairs
+        private byte[] newerLevels;
+        // the number of KVPairs held
+        private int count;
+        // the packed prefix of the key, see prefixOf
+        private long prefix;
         // An array of pointers to subsequent nodes
         private SkipNode[] forward;
+        // how many pairs each forward pointer moves ahead; a null pointer
+        // spans every pair after this node
+        private int[] span;
         // the level of the node
         private int level;
 
@@ -267,43 +984,202 @@ public class SkipList<K extends Comparable<? super K>, V>
          * @param level
          *                 the number of levels that the SkipNode should have
          */
-        @SuppressWarnings("unchecked")
         public SkipNode(KVPair<K, V> tempPair, int level) {
             pair = tempPair;
-            forward = (SkipNode[]) Array.newInstance(SkipList.SkipNode.class,
-                    level + 1);
+            pairLevel = level;
+            count = tempPair == null ? 0 : 1;
+            prefix = tempPair == null ? 0 : prefixOf(tempPair.getKey());
+            forward = newNodeArray(level + 1);
+            span = new int[level + 1];
             this.level = level;
         }
 
         /**
-         * Returns the KVPair stored in the SkipList.
+         * Returns the first KVPair in list order, the newest one.
          * 
          * @return the KVPair
          */
         public KVPair<K, V> element() {
-            return pair;
+            return pairAt(0);
+        }
+
+        /**
+         * @param i
+         *            the place of a pair in list order, from 0 to count - 1
+         * @return the pair
+         */
+        private KVPair<K, V> pairAt(int i) {
+            return i == count - 1 ? pair : newer[count - 2 - i];
+        }
+
+        /**
+         * @param i
+         *            the place of a pair in list order, from 0 to count - 1
+         * @return the level drawn for the pair
+         */
+        private int levelAt(int i) {
+            return i == count - 1 ? pairLevel : newerLevels[count - 2 - i];
+        }
+
+        /**
+         * @param value
+         *            the value to look for
+         * @return the place in list order of the first pair holding an
+         *         equal value, or -1 if there is none
+         */
+        private int indexOf(V value) {
+            for (int i = 0; i < count; i++) {
+                if (value.equals(pairAt(i).getValue())) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * @param value
+         *            the value to look for
+         * @return the place in list order of the last pair holding an equal
+         *         value, which is the oldest of them, or -1 if there is none
+         */
+        private int lastIndexOf(V value) {
+            for (int i = count - 1; i >= 0; i--) {
+                if (value.equals(pairAt(i).getValue())) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Puts a pair in front of the others, growing the tower if the level
+         * drawn for it is taller. Linking the new levels is up to the list.
+         * 
+         * @param it
+         *            the pair
+         * @param drawn
+         *            the level drawn for the pair
+         */
+        @SuppressWarnings("unchecked")
+        private void add(KVPair<K, V> it, int drawn) {
+            if (newer == null) {
+                newer = (KVPair<K, V>[]) new KVPair<?, ?>[2];
+                newerLevels = new byte[2];
+            }
+            else if (count - 1 == newer.length) {
+                newer = Arrays.copyOf(newer, newer.length * 2);
+                newerLevels = Arrays.copyOf(newerLevels, newer.length);
+            }
+            newer[count - 1] = it;
+            newerLevels[count - 1] = (byte) drawn;
+            count++;
+            if (drawn > level) {
+                forward = Arrays.copyOf(forward, drawn + 1);
+                span = Arrays.copyOf(span, drawn + 1);
+                level = drawn;
+            }
+        }
+
+        /**
+         * Takes out a pair, leaving at least one behind. The tower keeps its
+         * height; maxLevel tells how tall it needs to be.
+         * 
+         * @param i
+         *            the place of the pair in list order, from 0 to count - 2
+         *            unless the node holds more than one pair
+         */
+        private void removeAt(int i) {
+            int k = count - 2 - i;
+            if (k < 0) {
+                // the oldest pair goes, so the next oldest takes its place
+                pair = newer[0];
+                pairLevel = newerLevels[0];
+                k = 0;
+            }
+            System.arraycopy(newer, k + 1, newer, k, count - 2 - k);
+            System.arraycopy(newerLevels, k + 1, newerLevels, k, count - 2
+                    - k);
+            newer[count - 2] = null;
+            count--;
+        }
+
+        /**
+         * @return the tallest level drawn for any pair held
+         */
+        private int maxLevel() {
+            int max = pairLevel;
+            for (int i = 0; i < count - 1; i++) {
+                max = Math.max(max, newerLevels[i]);
+            }
+            return max;
         }
 
     }
 
     private class SkipListIterator implements Iterator<KVPair<K, V>> {
         private SkipNode current;
+        // the place in current of the next pair to return
+        private int index;
 
         public SkipListIterator() {
-            current = head;
+            current = head.forward[0];
         }
 
         @Override
         public boolean hasNext() {
 
-            return current.forward[0] != null;
+            return current != null;
         }
 
         @Override
         public KVPair<K, V> next() {
 
-            KVPair<K, V> elem = current.forward[0].element();
-            current = current.forward[0];
+            KVPair<K, V> elem = current.pairAt(index);
+            if (++index == current.count) {
+                current = current.forward[0];
+                index = 0;
+            }
+            return elem;
+        }
+    }
+
+    /**
+     * Walks the bottom level from a starting node for as long as the keys
+     * stay in range. Keys are sorted, so the first key out of range ends
+     * the walk.
+     */
+    private class RangeIterator implements Iterator<KVPair<K, V>> {
+        private SkipNode next;
+        // the place in next of the next pair to return
+        private int index;
+        private final Predicate<K> inRange;
+
+        /**
+         * @param start
+         *            the first node to return, or null for none
+         * @param inRange
+         *            tells whether a key is still inside the range
+         */
+        public RangeIterator(SkipNode start, Predicate<K> inRange) {
+            this.next = start;
+            this.inRange = inRange;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null && inRange.test(next.element().getKey());
+        }
+
+        @Override
+        public KVPair<K, V> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            KVPair<K, V> elem = next.pairAt(index);
+            if (++index == next.count) {
+                next = next.forward[0];
+                index = 0;
+            }
             return elem;
         }
     }
@@ -1,6 +1,5 @@
 import java.io.File;
-import java.io.FileNotFoundException;
-import java.util.Scanner;
+import java.io.IOException;
 
 /**
  * // On my honor:
@@ -49,32 +48,27 @@ public class SkipListProject {
         // the file containing the commands
         File file = null;
 
-        // Attempts to open the file and scan through it
-        try {
+        // Attempts to open the file and read through it; reading, parsing,
+        // running and printing each happen on their own thread, and closing
+        // the pipeline prints whatever output is still held back
+        try (CommandPipeline pipeline = new CommandPipeline(System.out)) {
 
             // takes the first command line argument and opens that file
             file = new File(args[0]);
 
-            // creates a scanner object
-            Scanner scanner = new Scanner(file);
-
-            // creates a command processor object
-            CommandProcessor cmdProc = new CommandProcessor();
-            // reads the entire file and processes the commands
-            // line by line
-            while (scanner.hasNextLine()) {
-                String line = scanner.nextLine();
-                // determines if the file has more lines to read
-                if (!line.trim().isEmpty()) {
-                    cmdProc.processor(line.trim());
-                }
-            }
-            // closes the scanner
-            scanner.close();
+            // creates a command processor object that prints through the
+            // pipeline
+            CommandProcessor cmdProc = new CommandProcessor(pipeline.sink());
+            // the inserts at the start of the file are loaded together
+            cmdProc.startBulkLoad();
+            // maps the entire file and processes the commands
+            // line by line; blank lines are skipped and the rest trimmed
+            pipeline.run(file, cmdProc);
+            cmdProc.endBulkLoad();
         }
-        // catches the exception if the file cannot be found
+        // catches the exception if the file cannot be found or read
         // and outputs the correct information to the console
-        catch (FileNotFoundException e) {
+        catch (IOException e) {
             System.out.println("Invalid file");
             e.printStackTrace();
         }
@@ -1,7 +1,10 @@
 import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.Random;
+import java.util.function.Consumer;
 import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
 import student.TestCase;
 import student.TestableRandom;
 
@@ -557,4 +560,501 @@ public class SkipListTest extends TestCase {
         assertEquals(0, sl.size());
     }
 
+
+    /**
+     * Testing removeFirst()
+     * should remove only the first pair with a duplicated key
+     */
+    public void testRemoveFirstDuplicateKey() {
+        KVPair<String, Rectangle> dup = new KVPair<>("rectangle1", r2);
+        sl.insert(rectangle1);
+        sl.insert(dup);
+        sl.insert(rectangle2);
+        KVPair<String, Rectangle> removed = sl.removeFirst("rectangle1");
+        assertNotNull(removed);
+        assertEquals("rectangle1", removed.getKey());
+        assertEquals(2, sl.size());
+        assertEquals(1, sl.search("rectangle1").size());
+        assertNull(sl.removeFirst("missing"));
+        assertNull(sl.removeFirst(null));
+    }
+
+
+    /**
+     * Testing remove(key, value)
+     * should remove only the pair holding that value, even when it is not
+     * the first pair with its key
+     */
+    public void testRemoveKeyValue() {
+        TestableRandom.setNextBooleans(true, true, false, true, false, false);
+        KVPair<String, Rectangle> dup = new KVPair<>("rectangle1", r2);
+        sl.insert(rectangle1);
+        sl.insert(dup);
+        sl.insert(rectangle2);
+        KVPair<String, Rectangle> removed = sl.remove("rectangle1",
+            rectangle1.getValue());
+        assertSame(rectangle1, removed);
+        assertEquals(2, sl.size());
+        assertSame(dup, sl.search("rectangle1").get(0));
+        assertNull(sl.remove("rectangle1", new Rectangle(9, 9, 9, 9)));
+        assertNull(sl.remove("missing", r2));
+        assertNull(sl.remove(null, r2));
+        assertSame(dup, sl.remove("rectangle1", r2));
+        assertSame(rectangle2, sl.remove("rectangle2", rectangle2
+            .getValue()));
+        assertEquals(0, sl.size());
+    }
+
+
+    /**
+     * Testing removeByValue()
+     * should unlink the node from every level and pick the pair with the
+     * smallest key when several hold an equal value
+     */
+    public void testRemoveByValueAllLevels() {
+        TestableRandom.setNextBooleans(true, true, false, false, true, true,
+            true, false);
+        KVPair<String, Rectangle> twin = new KVPair<>("a", new Rectangle(2, 2,
+            2, 2));
+        sl.insert(rectangle2);
+        sl.insert(rectangle1);
+        sl.insert(twin);
+        assertSame(twin, sl.removeByValue(new Rectangle(2, 2, 2, 2)));
+        assertSame(rectangle2, sl.removeByValue(r2));
+        assertNull(sl.removeByValue(r2));
+        assertEquals(1, sl.size());
+        assertSame(rectangle1, sl.search("rectangle1").get(0));
+        assertTrue(sl.search("rectangle2").isEmpty());
+        assertTrue(sl.search("a").isEmpty());
+        // among equal keys the oldest pair goes, not the newest
+        KVPair<String, Rectangle> older = new KVPair<>("b", r2);
+        KVPair<String, Rectangle> newer = new KVPair<>("b", r2);
+        sl.insert(older);
+        sl.insert(newer);
+        assertSame(older, sl.removeByValue(r2));
+        assertSame(newer, sl.removeByValue(r2));
+        // the head shrinks back to the tallest remaining node
+        outContent.reset();
+        sl.dump();
+        assertFuzzyEquals("SkipList dump:\nNode has depth 2, Value null\n"
+            + "Node has depth 2, value (rectangle1, 1, 1, 1, 1)\n"
+            + "SkipList size is: 1\n", outContent.toString());
+    }
+
+
+    /**
+     * Testing floor() and ceiling()
+     */
+    public void testFloorCeiling() {
+        KVPair<String, Rectangle> b = new KVPair<>("b", r1);
+        KVPair<String, Rectangle> d = new KVPair<>("d", r2);
+        KVPair<String, Rectangle> d2 = new KVPair<>("d", r1);
+        assertNull(sl.floor("c"));
+        assertNull(sl.ceiling("c"));
+        sl.insert(b);
+        sl.insert(d);
+        sl.insert(d2);
+        assertNull(sl.floor("a"));
+        assertSame(b, sl.floor("b"));
+        assertSame(b, sl.floor("c"));
+        assertSame(d, sl.floor("z"));
+        assertSame(b, sl.ceiling("a"));
+        assertSame(d2, sl.ceiling("c"));
+        assertSame(d2, sl.ceiling("d"));
+        assertNull(sl.ceiling("e"));
+    }
+
+
+    /**
+     * Testing subRange()
+     * from is included, to is left out, and null bounds are open
+     */
+    public void testSubRange() {
+        for (String name : new String[] { "e", "a", "c", "b", "d" }) {
+            sl.insert(new KVPair<>(name, r1));
+        }
+        StringBuilder keys = new StringBuilder();
+        for (KVPair<String, Rectangle> pair : sl.subRange("b", "d")) {
+            keys.append(pair.getKey());
+        }
+        assertEquals("bc", keys.toString());
+        keys.setLength(0);
+        for (KVPair<String, Rectangle> pair : sl.subRange(null, "bb")) {
+            keys.append(pair.getKey());
+        }
+        assertEquals("ab", keys.toString());
+        keys.setLength(0);
+        for (KVPair<String, Rectangle> pair : sl.subRange("cc", null)) {
+            keys.append(pair.getKey());
+        }
+        assertEquals("de", keys.toString());
+        assertFalse(sl.subRange("x", null).iterator().hasNext());
+
+        Iterator<KVPair<String, Rectangle>> itr = sl.subRange("e", "f")
+            .iterator();
+        assertEquals("e", itr.next().getKey());
+        Exception thrown = null;
+        try {
+            itr.next();
+        }
+        catch (Exception e) {
+            thrown = e;
+        }
+        assertTrue(thrown instanceof java.util.NoSuchElementException);
+    }
+
+
+    /**
+     * Testing prefixScan()
+     */
+    public void testPrefixScan() {
+        for (String name : new String[] { "apple", "b", "ap", "a", "apt",
+            "aq" }) {
+            sl.insert(new KVPair<>(name, r1));
+        }
+        StringBuilder keys = new StringBuilder();
+        for (KVPair<String, Rectangle> pair : sl.prefixScan("ap")) {
+            keys.append(pair.getKey()).append(' ');
+        }
+        assertEquals("ap apple apt ", keys.toString());
+        assertFalse(sl.prefixScan("c").iterator().hasNext());
+
+        SkipList<Integer, String> numbers = new SkipList<>();
+        assertFalse(numbers.prefixScan("1").iterator().hasNext());
+        numbers.insert(new KVPair<>(12, "twelve"));
+        Exception thrown = null;
+        try {
+            numbers.prefixScan("1");
+        }
+        catch (Exception e) {
+            thrown = e;
+        }
+        assertTrue(thrown instanceof IllegalStateException);
+    }
+
+
+    /**
+     * Testing insertAll()
+     * a sorted prefix built in one pass should leave the list exactly as
+     * inserting the pairs one at a time, duplicate keys and the unsorted
+     * tail included
+     */
+    public void testInsertAll() {
+        // one false ends each of the nine levels
+        boolean[] levels = { true, true, false, false, true, false, false,
+            true, true, true, false, false, true, false, false, true, false };
+        String[] names = { "a", "b", "b", "c", "c", "c", "d", "a", "e" };
+        ArrayList<KVPair<String, Rectangle>> pairs = new ArrayList<>();
+        for (int i = 0; i < names.length; i++) {
+            pairs.add(new KVPair<>(names[i], new Rectangle(i, i, 1, 1)));
+        }
+
+        TestableRandom.setNextBooleans(levels);
+        for (KVPair<String, Rectangle> pair : pairs) {
+            sl.insert(pair);
+        }
+        sl.dump();
+        String expected = outContent.toString();
+        outContent.reset();
+
+        SkipList<String, Rectangle> bulk = new SkipList<>();
+        TestableRandom.setNextBooleans(levels);
+        bulk.insertAll(pairs);
+        bulk.dump();
+        assertEquals(expected, outContent.toString());
+        assertEquals(names.length, bulk.size());
+        assertEquals(3, bulk.search("c").size());
+        assertSame(pairs.get(5), bulk.remove("c"));
+        assertSame(pairs.get(1), bulk.removeByValue(new Rectangle(1, 1, 1,
+            1)));
+    }
+
+
+    /**
+     * Testing rank(), get() and countRange()
+     * the positions they give should match a walk along the list after
+     * every kind of insert and remove
+     */
+    public void testRankGetAgainstModel() {
+        ArrayList<KVPair<String, Rectangle>> sorted = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            sorted.add(new KVPair<>("k" + (10 + i), new Rectangle(i, i, 1,
+                1)));
+        }
+        sl.insertAll(sorted);
+        Random ops = new Random(11);
+        for (int i = 0; i < 600; i++) {
+            String key = "k" + (10 + ops.nextInt(40));
+            int op = ops.nextInt(4);
+            if (op == 0) {
+                sl.remove(key);
+            }
+            else if (op == 1 && sl.size() > 0) {
+                KVPair<String, Rectangle> pair = sl.get(ops.nextInt(sl
+                    .size()));
+                if (ops.nextBoolean()) {
+                    assertSame(pair, sl.removeByValue(pair.getValue()));
+                }
+                else {
+                    sl.remove(pair.getKey(), pair.getValue());
+                }
+            }
+            else {
+                sl.insert(new KVPair<>(key, new Rectangle(i, i, 2, 2)));
+            }
+
+            int index = 0;
+            for (KVPair<String, Rectangle> pair : sl) {
+                assertSame(pair, sl.get(index));
+                if (index == 0 || sl.get(index - 1).getKey().compareTo(pair
+                    .getKey()) < 0) {
+                    assertEquals(index, sl.rank(pair.getKey()));
+                }
+                index++;
+            }
+            assertEquals(sl.size(), index);
+        }
+        assertEquals(sl.size(), sl.countRange(null, null));
+        int between = 0;
+        for (KVPair<String, Rectangle> pair : sl.subRange("k20", "k35")) {
+            between++;
+        }
+        assertEquals(between, sl.countRange("k20", "k35"));
+        assertEquals(0, sl.countRange("k35", "k20"));
+    }
+
+
+    /**
+     * Testing get() and rank() at the edges
+     */
+    public void testGetOutOfRange() {
+        assertEquals(0, sl.rank("a"));
+        sl.insert(rectangle1);
+        sl.insert(rectangle2);
+        assertSame(rectangle1, sl.get(0));
+        assertSame(rectangle2, sl.get(1));
+        assertEquals(2, sl.rank("z"));
+        assertEquals(1, sl.countRange("rectangle2", null));
+        Exception thrown = null;
+        try {
+            sl.get(2);
+        }
+        catch (IndexOutOfBoundsException e) {
+            thrown = e;
+        }
+        assertNotNull(thrown);
+        thrown = null;
+        try {
+            sl.get(-1);
+        }
+        catch (IndexOutOfBoundsException e) {
+            thrown = e;
+        }
+        assertNotNull(thrown);
+    }
+
+
+    /**
+     * Testing dump(first, count)
+     * should print just the nodes on the page, between the usual head and
+     * size lines
+     */
+    public void testDumpPage() {
+        TestableRandom.setNextBooleans(false, false, false);
+        sl.insert(new KVPair<>("a", r1));
+        sl.insert(new KVPair<>("b", r2));
+        sl.insert(new KVPair<>("c", r1));
+        outContent.reset();
+        sl.dump(1, 5);
+        assertEquals("SkipList dump:\nNode has depth 2, Value null\n"
+            + "Node has depth 2, value ((b, 2, 2, 2, 2))\n"
+            + "Node has depth 2, value ((c, 1, 1, 1, 1))\n"
+            + "SkipList size is: 3\n", outContent.toString());
+        outContent.reset();
+        sl.dump(3, 5);
+        assertEquals("SkipList dump:\nNode has depth 2, Value null\n"
+            + "SkipList size is: 3\n", outContent.toString());
+    }
+
+
+    /**
+     * Testing search(key, sink), contains(), rank(), get() and the remove
+     * and insert paths for garbage
+     * once warmed up, lookups should allocate nothing, and a remove followed
+     * by an insert should allocate no more than the new node and its arrays
+     */
+    public void testAllocationFree() {
+        int n = 1000;
+        String[] keys = new String[n];
+        ArrayList<KVPair<String, Rectangle>> pairs = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            keys[i] = "k" + (1000 + i);
+            pairs.add(new KVPair<>(keys[i], new Rectangle(i, i, 1, 1)));
+            sl.insert(pairs.get(i));
+        }
+        long[] found = new long[1];
+        Consumer<KVPair<String, Rectangle>> sink = pair -> found[0]++;
+        int wrong = 0;
+        int hits = 0;
+        // reading the counter allocates a little itself
+        long before = allocatedBytes();
+        long overhead = allocatedBytes() - before;
+        for (int round = 0; round < 3; round++) {
+            // the first rounds load classes and let the JIT settle; the
+            // checks below are counted rather than asserted so that boxing
+            // does not show up
+            before = allocatedBytes();
+            for (int i = 0; i < n; i++) {
+                hits += sl.search(keys[i], sink);
+                sl.search("miss", sink);
+                if (!sl.contains(keys[i]) || sl.rank(keys[i]) != i || sl
+                    .get(i).getKey() != keys[i]) {
+                    wrong++;
+                }
+            }
+            long lookups = allocatedBytes() - before - overhead;
+
+            // every value is distinct, so each remove empties its value
+            // and each insert brings a new one
+            before = allocatedBytes();
+            for (int i = 0; i < n; i++) {
+                sl.remove(keys[i], pairs.get(i).getValue());
+                sl.insert(pairs.get(i));
+            }
+            long churn = allocatedBytes() - before - overhead;
+            if (round == 2) {
+                assertTrue("lookups allocated " + lookups, lookups < n);
+                assertTrue("churn allocated " + churn / n + " per insert",
+                    churn / n < 128);
+            }
+        }
+        assertEquals(0, wrong);
+        assertEquals(3 * n, hits);
+        assertEquals(hits, found[0]);
+        assertEquals(n, sl.size());
+        // the reverse index is built on first use from what is left
+        assertSame(pairs.get(5), sl.removeByValue(new Rectangle(5, 5, 1,
+            1)));
+        assertNull(sl.removeByValue(new Rectangle(5, 5, 1, 1)));
+        assertEquals(n - 1, sl.size());
+    }
+
+
+    /**
+     * @return the bytes this thread has allocated so far
+     */
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean)ManagementFactory
+            .getThreadMXBean()).getCurrentThreadAllocatedBytes();
+    }
+
+
+    /**
+     * Testing insert() and remove(key, value) on one key's pairs
+     * pairs with one key share a node, yet keep their order, positions and
+     * drawn depths; the tower and head come down when the pair that made
+     * them tall goes
+     */
+    public void testGroupedDuplicates() {
+        TestableRandom.setNextBooleans(true, true, false, false, false);
+        KVPair<String, Rectangle> tall = new KVPair<>("a", r1);
+        KVPair<String, Rectangle> low = new KVPair<>("a", r2);
+        sl.insert(tall);
+        sl.insert(low);
+        sl.insert(rectangle1);
+        assertSame(low, sl.search("a").get(0));
+        assertSame(tall, sl.search("a").get(1));
+        assertSame(tall, sl.get(1));
+        assertSame(rectangle1, sl.get(2));
+        assertEquals(2, sl.rank("b"));
+        assertEquals(2, sl.countRange("a", "b"));
+        assertSame(tall, sl.floor("a"));
+        outContent.reset();
+        sl.dump();
+        assertEquals("SkipList dump:\nNode has depth 4, Value null\n"
+            + "Node has depth 2, value ((a, 2, 2, 2, 2))\n"
+            + "Node has depth 4, value ((a, 1, 1, 1, 1))\n"
+            + "Node has depth 2, value ((rectangle1, 1, 1, 1, 1))\n"
+            + "SkipList size is: 3\n", outContent.toString());
+
+        assertSame(tall, sl.remove("a", r1));
+        outContent.reset();
+        sl.dump();
+        assertEquals("SkipList dump:\nNode has depth 2, Value null\n"
+            + "Node has depth 2, value ((a, 2, 2, 2, 2))\n"
+            + "Node has depth 2, value ((rectangle1, 1, 1, 1, 1))\n"
+            + "SkipList size is: 2\n", outContent.toString());
+        assertSame(rectangle1, sl.get(1));
+        assertSame(low, sl.remove("a"));
+        assertNull(sl.remove("a"));
+        assertEquals(0, sl.rank("b"));
+    }
+
+
+    /**
+     * Testing insert(), search(), rank() and floor() on keys whose packed
+     * prefixes tie or lose detail
+     * keys made of characters around the edges of a byte, including ones
+     * that are prefixes of each other, should still come out in String order
+     */
+    public void testKeyPrefixOrder() {
+        char[] alphabet = { '\0', 'a', 'b', '\u00fe', '\u00ff', '\u0100',
+            '\uffff' };
+        Random gen = new Random(5);
+        ArrayList<String> keys = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            StringBuilder key = new StringBuilder();
+            int length = gen.nextInt(12);
+            for (int j = 0; j < length; j++) {
+                key.append(alphabet[gen.nextInt(alphabet.length)]);
+            }
+            keys.add(key.toString());
+            sl.insert(new KVPair<>(key.toString(), r1));
+        }
+        keys.sort(null);
+        int index = 0;
+        for (KVPair<String, Rectangle> pair : sl) {
+            assertEquals(keys.get(index), pair.getKey());
+            index++;
+        }
+        for (int i = 0; i < keys.size(); i++) {
+            String key = keys.get(i);
+            assertEquals(keys.indexOf(key), sl.rank(key));
+            assertEquals(key, sl.floor(key).getKey());
+            assertFalse(sl.search(key).isEmpty());
+        }
+    }
+
+
+    /**
+     * Testing insert(), rank() and search() on keys that all share their
+     * first eight characters, so every packed prefix ties and the keys are
+     * compared from the ninth character on
+     */
+    public void testSharedKeyPrefix() {
+        char[] alphabet = { '\0', '0', '9', 'a', '\u00ff', '\u0100' };
+        Random gen = new Random(6);
+        ArrayList<String> keys = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            StringBuilder key = new StringBuilder("rectangl");
+            int length = gen.nextInt(6);
+            for (int j = 0; j < length; j++) {
+                key.append(alphabet[gen.nextInt(alphabet.length)]);
+            }
+            keys.add(key.toString());
+            sl.insert(new KVPair<>(key.toString(), r1));
+        }
+        keys.sort(null);
+        int index = 0;
+        for (KVPair<String, Rectangle> pair : sl) {
+            assertEquals(keys.get(index), pair.getKey());
+            index++;
+        }
+        for (String key : keys) {
+            assertEquals(keys.indexOf(key), sl.rank(key));
+            assertFalse(sl.search(key).isEmpty());
+        }
+        assertTrue(sl.search("rectangl\u0101").isEmpty());
+    }
+
 }
@@ -0,0 +1,1006 @@
+import benchmarks.Workload;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Random;
+import java.util.Scanner;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The workloads the JMH benchmarks time, written here in the default
+ * package so they can use the project's classes. The benchmarks find this
+ * class by name, since code in a package cannot name it.
+ *
+ * Every workload draws its names, coordinates and commands from a fixed
+ * seed while it is set up, so the timed calls only run the operation and
+ * every run sees the same data.
+ *
+ * @author kinjalpandey, architg03
+ * @version 02/28/2024
+ */
+public class Workloads {
+
+    // coordinates stay below this, so rectangles up to 16 wide still fit
+    // in the 1024 world
+    private static final int SPAN = 1000;
+
+    private Workloads() {
+        // only the factory method
+    }
+
+
+    /**
+     * Makes a workload by name, with quadtrees of the default leaf capacity.
+     *
+     * @param name
+     *            the workload
+     * @return the workload, not yet set up
+     * @throws IllegalArgumentException
+     *             if there is no such workload
+     */
+    public static Workload create(String name) {
+        return create(name, LeafNode.DEFAULT_CAPACITY);
+    }
+
+
+    /**
+     * Makes a workload by name.
+     *
+     * @param name
+     *            the workload
+     * @param leafCapacity
+     *            the leaf capacity of the quadtrees it builds; workloads
+     *            that build none ignore it
+     * @return the workload, not yet set up
+     * @throws IllegalArgumentException
+     *             if there is no such workload
+     */
+    public static Workload create(String name, int leafCapacity) {
+        switch (name) {
+            case "skiplist.insert":
+                return new SkipListInsert();
+            case "skiplist.remove":
+                return new SkipListRemove();
+            case "skiplist.search":
+                return new SkipListSearch();
+            case "skiplist.keys.short":
+                return new KeyLookup("short", false);
+            case "skiplist.keys.random":
+                return new KeyLookup("random", false);
+            case "skiplist.keys.shared":
+                return new KeyLookup("shared", false);
+            case "skiplist.keys.short.compareTo":
+                return new KeyLookup("short", true);
+            case "skiplist.keys.random.compareTo":
+                return new KeyLookup("random", true);
+            case "skiplist.keys.shared.compareTo":
+                return new KeyLookup("shared", true);
+            case "skiplist.finger.sorted":
+                return new FingerCycle(false);
+            case "skiplist.finger.random":
+                return new FingerCycle(true);
+            case "skiplist.finger.search.sorted":
+                return new FingerSearch(false);
+            case "skiplist.finger.search.random":
+                return new FingerSearch(true);
+            case "skiplist.concurrent.reads":
+                return new Shared(false, 0);
+            case "skiplist.concurrent.mixed":
+                return new Shared(false, 10);
+            case "skiplist.locked.reads":
+                return new Shared(true, 0);
+            case "skiplist.locked.mixed":
+                return new Shared(true, 10);
+            case "lines.scanner":
+                return new LineRead(false);
+            case "lines.mapped":
+                return new LineRead(true);
+            case "prquadtree.insert":
+                return new TreeInsert(leafCapacity);
+            case "prquadtree.regionSearch":
+                return new TreeRegionSearch(leafCapacity);
+            case "prquadtree.searchByName":
+                return new TreeLookup(leafCapacity, true);
+            case "prquadtree.searchByCoordinates":
+                return new TreeLookup(leafCapacity, false);
+            case "prquadtree.findDuplicates":
+                return new TreeDuplicates(leafCapacity);
+            case "database.intersections":
+                return new Intersections();
+            case "commands.rectangles":
+                return new Commands(false, false);
+            case "commands.rectangles.pipeline":
+                return new Commands(false, true);
+            case "commands.points":
+                return new Commands(true, false);
+            case "commands.points.pipeline":
+                return new Commands(true, true);
+            default:
+                throw new IllegalArgumentException("No workload " + name);
+        }
+    }
+
+
+    /**
+     * @param count
+     *            the number of names
+     * @param prefix
+     *            starts every name
+     * @param rng
+     *            shuffles the names
+     * @return distinct names in random order
+     */
+    private static String[] names(int count, String prefix, Random rng) {
+        String[] names = new String[count];
+        for (int i = 0; i < count; i++) {
+            names[i] = prefix + i;
+        }
+        for (int i = count - 1; i > 0; i--) {
+            int j = rng.nextInt(i + 1);
+            String swap = names[i];
+            names[i] = names[j];
+            names[j] = swap;
+        }
+        return names;
+    }
+
+
+    /**
+     * @param count
+     *            the number of entries
+     * @return a SkipList holding count names in random order
+     */
+    private static SkipList<String, Integer> filledList(int count) {
+        SkipList<String, Integer> list = new SkipList<>();
+        String[] names = names(count, "k", new Random(1));
+        for (int i = 0; i < count; i++) {
+            list.insert(new KVPair<>(names[i], i));
+        }
+        return list;
+    }
+
+
+    /**
+     * @param count
+     *            the number of points
+     * @param prefix
+     *            starts every name
+     * @param rng
+     *            places the points
+     * @return random points with distinct names
+     */
+    private static Point[] points(int count, String prefix, Random rng) {
+        Point[] points = new Point[count];
+        for (int i = 0; i < count; i++) {
+            points[i] = new Point(prefix + i, rng.nextInt(SPAN), rng.nextInt(
+                SPAN));
+        }
+        return points;
+    }
+
+
+    /**
+     * Inserts new names into a list that starts with size names.
+     */
+    private static class SkipListInsert implements Workload {
+        private SkipList<String, Integer> list;
+        private String[] fresh;
+        private int next;
+
+        @Override
+        public void setUp(int size) {
+            list = filledList(size);
+            fresh = names(size, "n", new Random(2));
+            next = 0;
+        }
+
+
+        @Override
+        public int run() {
+            String name = fresh[next++ % fresh.length];
+            list.insert(new KVPair<>(name, next));
+            return list.size();
+        }
+    }
+
+
+    /**
+     * Removes names from a list that starts with size names.
+     */
+    private static class SkipListRemove implements Workload {
+        private SkipList<String, Integer> list;
+        private String[] order;
+        private int next;
+
+        @Override
+        public void setUp(int size) {
+            list = filledList(size);
+            order = names(size, "k", new Random(3));
+            next = 0;
+        }
+
+
+        @Override
+        public int run() {
+            KVPair<String, Integer> removed = list.remove(order[next++
+                % order.length]);
+            return removed == null ? 0 : removed.getValue();
+        }
+    }
+
+
+    /**
+     * Searches a list of size names for names it holds.
+     */
+    private static class SkipListSearch implements Workload {
+        private SkipList<String, Integer> list;
+        private String[] order;
+        private int next;
+        private int[] found = new int[1];
+
+        @Override
+        public void setUp(int size) {
+            list = filledList(size);
+            order = names(size, "k", new Random(4));
+            next = 0;
+        }
+
+
+        @Override
+        public int run() {
+            return list.search(order[next++ % order.length], pair -> found[0]
+                += pair.getValue());
+        }
+    }
+
+
+    /**
+     * Looks up names of one shape in a list of size of them, through the
+     * packed key prefixes or, with the names wrapped in a key that is not a
+     * String, through compareTo on every step as the list did before it had
+     * prefixes. Each run is a contains and a rank, so every lookup is a full
+     * descent.
+     */
+    private static class KeyLookup implements Workload {
+        private String shape;
+        private boolean compareTo;
+        private SkipList<String, Integer> list;
+        private SkipList<FullKey, Integer> wrapped;
+        private String[] order;
+        private FullKey[] wrappedOrder;
+        private int next;
+
+        /**
+         * @param shape
+         *            short, random or shared
+         * @param compareTo
+         *            true to compare whole keys on every step
+         */
+        KeyLookup(String shape, boolean compareTo) {
+            this.shape = shape;
+            this.compareTo = compareTo;
+        }
+
+
+        @Override
+        public void setUp(int size) {
+            Random rng = new Random(14);
+            String[] keys = new String[size];
+            for (int i = 0; i < size; i++) {
+                keys[i] = keyName(shape, i, rng);
+            }
+            list = new SkipList<>();
+            wrapped = new SkipList<>();
+            for (int i = 0; i < size; i++) {
+                if (compareTo) {
+                    wrapped.insert(new KVPair<>(new FullKey(keys[i]), i));
+                }
+                else {
+                    list.insert(new KVPair<>(keys[i], i));
+                }
+            }
+            for (int i = size - 1; i > 0; i--) {
+                int j = rng.nextInt(i + 1);
+                String swap = keys[i];
+                keys[i] = keys[j];
+                keys[j] = swap;
+            }
+            order = keys;
+            wrappedOrder = new FullKey[size];
+            for (int i = 0; i < size; i++) {
+                wrappedOrder[i] = new FullKey(keys[i]);
+            }
+            next = 0;
+        }
+
+
+        @Override
+        public int run() {
+            int i = next++ % order.length;
+            if (compareTo) {
+                FullKey key = wrappedOrder[i];
+                return wrapped.contains(key) ? wrapped.rank(key) : -1;
+            }
+            String key = order[i];
+            return list.contains(key) ? list.rank(key) : -1;
+        }
+    }
+
+
+    /**
+     * @param shape
+     *            short for base 36 numbers, shared for "rectangle" + i, or
+     *            random for ten random letters and i
+     * @param i
+     *            the entry number, which keeps names distinct
+     * @param rng
+     *            the source of random letters
+     * @return a name of the given shape
+     */
+    private static String keyName(String shape, int i, Random rng) {
+        if (shape.equals("short")) {
+            return Integer.toString(i, 36);
+        }
+        if (shape.equals("shared")) {
+            return "rectangle" + i;
+        }
+        StringBuilder name = new StringBuilder();
+        for (int c = 0; c < 10; c++) {
+            name.append((char)('a' + rng.nextInt(26)));
+        }
+        return name.append(i).toString();
+    }
+
+
+    /**
+     * A String key the SkipList cannot pack a prefix for, so every step of
+     * a descent compares whole keys.
+     */
+    private static class FullKey implements Comparable<FullKey> {
+        private String key;
+
+        /**
+         * @param key
+         *            the String it orders by
+         */
+        FullKey(String key) {
+            this.key = key;
+        }
+
+
+        @Override
+        public int compareTo(FullKey other) {
+            return key.compareTo(other.key);
+        }
+    }
+
+
+    /**
+     * @param count
+     *            the number of names
+     * @param shuffled
+     *            true to put them in random order
+     * @return zero padded names, so string order is number order, sorted
+     *         unless shuffled
+     */
+    private static ArrayList<String> stream(int count, boolean shuffled) {
+        ArrayList<String> names = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            names.add(String.format("name%08d", i));
+        }
+        if (shuffled) {
+            Collections.shuffle(names, new Random(42));
+        }
+        return names;
+    }
+
+
+    /**
+     * Builds a list by inserting a stream of size names one at a time,
+     * searches for every name and removes them all again, in stream order,
+     * the cycle the SkipList finger is meant to shorten on sorted streams.
+     */
+    private static class FingerCycle implements Workload {
+        private boolean shuffled;
+        private ArrayList<String> names;
+
+        /**
+         * @param shuffled
+         *            true for names in random order, false for sorted
+         */
+        FingerCycle(boolean shuffled) {
+            this.shuffled = shuffled;
+        }
+
+
+        @Override
+        public void setUp(int size) {
+            names = stream(size, shuffled);
+        }
+
+
+        @Override
+        public int run() {
+            SkipList<String, Integer> list = new SkipList<>();
+            for (int i = 0; i < names.size(); i++) {
+                list.insert(new KVPair<>(names.get(i), i));
+            }
+            int found = 0;
+            for (String name : names) {
+                found += list.search(name).size();
+            }
+            for (String name : names) {
+                list.remove(name);
+            }
+            return found;
+        }
+    }
+
+
+    /**
+     * Searches a list of size names for the next name of the stream, so a
+     * sorted stream lets each search start from the finger.
+     */
+    private static class FingerSearch implements Workload {
+        private boolean shuffled;
+        private SkipList<String, Integer> list;
+        private ArrayList<String> names;
+        private int next;
+
+        /**
+         * @param shuffled
+         *            true for names in random order, false for sorted
+         */
+        FingerSearch(boolean shuffled) {
+            this.shuffled = shuffled;
+        }
+
+
+        @Override
+        public void setUp(int size) {
+            names = stream(size, shuffled);
+            list = new SkipList<>();
+            for (int i = 0; i < size; i++) {
+                list.insert(new KVPair<>(names.get(i), i));
+            }
+            next = 0;
+        }
+
+
+        @Override
+        public int run() {
+            return list.search(names.get(next++ % names.size())).size();
+        }
+    }
+
+
+    /**
+     * One random operation on a list of size names that many threads use
+     * at once: a search, or for the given share of operations a remove
+     * that puts the pair straight back so the size holds. The list is a
+     * ConcurrentSkipList, or a SkipList every thread takes a lock on.
+     */
+    private static class Shared implements Workload {
+        private boolean locked;
+        private int writePercent;
+        private ConcurrentSkipList<String, Integer> concurrent;
+        private SkipList<String, Integer> plain;
+        private String[] names;
+
+        /**
+         * @param locked
+         *            true for a SkipList behind a lock, false for the
+         *            ConcurrentSkipList
+         * @param writePercent
+         *            the share of operations that write
+         */
+        Shared(boolean locked, int writePercent) {
+            this.locked = locked;
+            this.writePercent = writePercent;
+        }
+
+
+        @Override
+        public void setUp(int size) {
+            names = new String[size];
+            concurrent = new ConcurrentSkipList<>();
+            plain = new SkipList<>();
+            for (int i = 0; i < size; i++) {
+                names[i] = "p" + i;
+                if (locked) {
+                    plain.insert(new KVPair<>(names[i], i));
+                }
+                else {
+                    concurrent.insert(new KVPair<>(names[i], i));
+                }
+            }
+        }
+
+
+        @Override
+        public int run() {
+            ThreadLocalRandom rng = ThreadLocalRandom.current();
+            String name = names[rng.nextInt(names.length)];
+            boolean write = rng.nextInt(100) < writePercent;
+            if (locked) {
+                synchronized (plain) {
+                    return write ? swap(plain.remove(name), plain) : plain
+                        .search(name).size();
+                }
+            }
+            if (write) {
+                KVPair<String, Integer> pair = concurrent.remove(name);
+                if (pair != null) {
+                    concurrent.insert(pair);
+                }
+                return pair == null ? 0 : 1;
+            }
+            return concurrent.search(name).size();
+        }
+
+
+        /**
+         * Puts a removed pair back. The caller holds the lock.
+         *
+         * @param pair
+         *            the pair removed, or null
+         * @param list
+         *            the list it came from
+         * @return 1 if there was a pair, 0 if not
+         */
+        private int swap(KVPair<String, Integer> pair,
+            SkipList<String, Integer> list) {
+            if (pair == null) {
+                return 0;
+            }
+            list.insert(pair);
+            return 1;
+        }
+    }
+
+
+    /**
+     * Inserts new points into a tree that starts with size points.
+     */
+    private static class TreeInsert implements Workload {
+        private int capacity;
+        private PRQuadTree tree;
+        private Point[] fresh;
+        private int next;
+
+        /**
+         * @param capacity
+         *            the leaf capacity of the tree
+         */
+        TreeInsert(int capacity) {
+            this.capacity = capacity;
+        }
+
+
+        @Override
+        public void setUp(int size) {
+            tree = new PRQuadTree(1024, capacity);
+            for (Point point : points(size, "p", new Random(5))) {
+                tree.insert(point);
+            }
+            fresh = points(size, "q", new Random(6));
+            next = 0;
+        }
+
+
+        @Override
+        public int run() {
+            Point point = fresh[next++ % fresh.length];
+            tree.insert(point);
+            return point.getX();
+        }
+    }
+
+
+    /**
+     * Searches 64 by 64 regions of a tree of size points.
+     */
+    private static class TreeRegionSearch implements Workload {
+        private int capacity;
+        private PRQuadTree tree;
+        private int[] corners;
+        private int next;
+        private int[] found = new int[1];
+
+        /**
+         * @param capacity
+         *            the leaf capacity of the tree
+         */
+        TreeRegionSearch(int capacity) {
+            this.capacity = capacity;
+        }
+
+
+        @Override
+        public void setUp(int size) {
+            tree = new PRQuadTree(1024, capacity);
+            for (Point point : points(size, "p", new Random(7))) {
+                tree.insert(point);
+            }
+            Random rng = new Random(8);
+            corners = new int[2048];
+            for (int i = 0; i < corners.length; i++) {
+                corners[i] = rng.nextInt(SPAN - 64);
+            }
+            next = 0;
+        }
+
+
+        @Override
+        public int run() {
+            int x = corners[next++ % corners.length];
+            int y = corners[next++ % corners.length];
+            found[0] = 0;
+            tree.regionSearch(x, y, 64, 64, point -> found[0]++);
+            return found[0];
+        }
+    }
+
+
+    /**
+     * Looks up the points of a tree of size points one at a time, by name
+     * through the tree's name index or by location through a descent.
+     */
+    private static class TreeLookup implements Workload {
+        private int capacity;
+        private boolean byName;
+        private PRQuadTree tree;
+        private Point[] order;
+        private int next;
+
+        /**
+         * @param capacity
+         *            the leaf capacity of the tree
+         * @param byName
+         *            true to look up names, false to look up locations
+         */
+        TreeLookup(int capacity, boolean byName) {
+            this.capacity = capacity;
+            this.byName = byName;
+        }
+
+
+        @Override
+        public void setUp(int size) {
+            tree = new PRQuadTree(1024, capacity);
+            Point[] points = points(size, "p", new Random(12));
+            for (Point point : points) {
+                tree.insert(point);
+            }
+            // look them up in an order unrelated to insertion
+            Random rng = new Random(13);
+            for (int i = points.length - 1; i > 0; i--) {
+                int j = rng.nextInt(i + 1);
+                Point swap = points[i];
+                points[i] = points[j];
+                points[j] = swap;
+            }
+            order = points;
+            next = 0;
+        }
+
+
+        @Override
+        public int run() {
+            Point point = order[next++ % order.length];
+            if (byName) {
+                return tree.searchByName(point.getName()).size();
+            }
+            return tree.searchByCoordinates(point.getX(), point.getY())
+                .getX();
+        }
+    }
+
+
+    /**
+     * Finds the duplicate locations in a tree of size points, some of
+     * which share a location.
+     */
+    private static class TreeDuplicates implements Workload {
+        private int capacity;
+        private PRQuadTree tree;
+
+        /**
+         * @param capacity
+         *            the leaf capacity of the tree
+         */
+        TreeDuplicates(int capacity) {
+            this.capacity = capacity;
+        }
+
+
+        @Override
+        public void setUp(int size) {
+            tree = new PRQuadTree(1024, capacity);
+            Random rng = new Random(9);
+            Point[] points = points(size, "p", rng);
+            for (int i = 0; i < size; i++) {
+                Point point = points[i];
+                if (i > 0 && rng.nextInt(20) == 0) {
+                    // every twentieth point or so lands on an earlier one
+                    Point other = points[rng.nextInt(i)];
+                    point = new Point(point.getName(), other.getX(), other
+                        .getY());
+                }
+                tree.insert(point);
+            }
+        }
+
+
+        @Override
+        public int run() {
+            return tree.findDuplicates().size();
+        }
+    }
+
+
+    /**
+     * Runs the intersections command on a database of size rectangles,
+     * printing nothing.
+     */
+    private static class Intersections implements Workload {
+        private Database database;
+
+        @Override
+        public void setUp(int size) {
+            database = new Database(OutputSink.DISCARD);
+            Random rng = new Random(10);
+            ArrayList<KVPair<String, Rectangle>> pairs = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                pairs.add(new KVPair<>("r" + i, rectangle(rng)));
+            }
+            database.insertAll(pairs);
+        }
+
+
+        @Override
+        public int run() {
+            database.intersections();
+            return 1;
+        }
+    }
+
+
+    /**
+     * @param rng
+     *            the source of coordinates
+     * @return a small rectangle inside the world
+     */
+    private static Rectangle rectangle(Random rng) {
+        return new Rectangle(rng.nextInt(SPAN), rng.nextInt(SPAN), 1 + rng
+            .nextInt(16), 1 + rng.nextInt(16));
+    }
+
+
+    /**
+     * Runs a command file of size commands from the start with a fresh
+     * processor, line by line or through a CommandPipeline, printing
+     * nothing.
+     */
+    private static class Commands implements Workload {
+        private boolean points;
+        private boolean pipelined;
+        private ArrayList<String> lines = new ArrayList<>();
+        private File file;
+
+        /**
+         * @param points
+         *            true for a point file, false for a rectangle file
+         * @param pipelined
+         *            true to run the file through a CommandPipeline
+         */
+        Commands(boolean points, boolean pipelined) {
+            this.points = points;
+            this.pipelined = pipelined;
+        }
+
+
+        @Override
+        public void setUp(int size) {
+            Random rng = new Random(11);
+            lines.clear();
+            // a quarter of the file loads the database, the rest uses it
+            int loaded = size / 4;
+            for (int i = 0; i < size; i++) {
+                int name = rng.nextInt(Math.max(1, Math.min(i, loaded)));
+                int op = i < loaded ? 0 : rng.nextInt(4);
+                if (op == 0) {
+                    lines.add(insert(i, rng));
+                }
+                else if (op == 1) {
+                    lines.add("search n" + name);
+                }
+                else if (op == 2) {
+                    lines.add("regionsearch " + rng.nextInt(SPAN - 64) + " "
+                        + rng.nextInt(SPAN - 64) + " 64 64");
+                }
+                else {
+                    lines.add("remove n" + name);
+                }
+            }
+            try {
+                if (file == null) {
+                    file = File.createTempFile("commands", ".txt");
+                    file.deleteOnExit();
+                }
+                Files.write(file.toPath(), lines, StandardCharsets.US_ASCII);
+            }
+            catch (IOException e) {
+                throw new IllegalStateException("Cannot write " + file, e);
+            }
+        }
+
+
+        /**
+         * @param i
+         *            the line number, which names the entry
+         * @param rng
+         *            the source of coordinates
+         * @return an insert command for this kind of file
+         */
+        private String insert(int i, Random rng) {
+            if (points) {
+                return "insert n" + i + " " + rng.nextInt(SPAN) + " " + rng
+                    .nextInt(SPAN);
+            }
+            Rectangle rect = rectangle(rng);
+            return "insert n" + i + " " + rect.getxCoordinate() + " " + rect
+                .getyCoordinate() + " " + rect.getWidth() + " " + rect
+                    .getHeight();
+        }
+
+
+        @Override
+        public int run() {
+            if (pipelined) {
+                return runPipelined();
+            }
+            if (points) {
+                PointsCommandProcessor processor = new PointsCommandProcessor(
+                    OutputSink.DISCARD);
+                processor.startBulkLoad();
+                for (String line : lines) {
+                    processor.processCommand(line);
+                }
+                processor.endBulkLoad();
+            }
+            else {
+                CommandProcessor processor = new CommandProcessor(
+                    OutputSink.DISCARD);
+                processor.startBulkLoad();
+                for (String line : lines) {
+                    processor.processor(line);
+                }
+                processor.endBulkLoad();
+            }
+            return lines.size();
+        }
+
+
+        /**
+         * Runs the file through a pipeline whose writer prints nowhere.
+         *
+         * @return the number of lines
+         */
+        private int runPipelined() {
+            PrintStream nowhere = new PrintStream(OutputStream
+                .nullOutputStream());
+            try (CommandPipeline pipeline = new CommandPipeline(nowhere)) {
+                if (points) {
+                    PointsCommandProcessor processor =
+                        new PointsCommandProcessor(pipeline.sink());
+                    processor.startBulkLoad();
+                    pipeline.run(file, processor);
+                    processor.endBulkLoad();
+                }
+                else {
+                    CommandProcessor processor = new CommandProcessor(pipeline
+                        .sink());
+                    processor.startBulkLoad();
+                    pipeline.run(file, processor);
+                    processor.endBulkLoad();
+                }
+            }
+            catch (IOException e) {
+                throw new IllegalStateException("Cannot read " + file, e);
+            }
+            return lines.size();
+        }
+    }
+
+
+    /**
+     * Reads a generated command file of size lines, trimming every line and
+     * skipping blank ones, with the Scanner loop the main methods used to
+     * have or with the MappedLineReader. Only the characters are counted,
+     * so the time is spent reading.
+     */
+    private static class LineRead implements Workload {
+        private boolean mapped;
+        private File file;
+
+        /**
+         * @param mapped
+         *            true to read through the MappedLineReader, false for a
+         *            Scanner
+         */
+        LineRead(boolean mapped) {
+            this.mapped = mapped;
+        }
+
+
+        @Override
+        public void setUp(int size) {
+            Random rng = new Random(42);
+            StringBuilder text = new StringBuilder();
+            for (int i = 0; i < size; i++) {
+                int name = rng.nextInt(100000);
+                int op = rng.nextInt(10);
+                if (op == 0) {
+                    text.append("search r").append(name);
+                }
+                else if (op == 1) {
+                    text.append("remove   r").append(name);
+                }
+                else if (op == 2) {
+                    text.append("  ");
+                }
+                else {
+                    text.append("insert r").append(name).append(' ').append(
+                        rng.nextInt(1024)).append(' ').append(rng.nextInt(
+                            1024)).append(' ').append(1 + rng.nextInt(64))
+                        .append(' ').append(1 + rng.nextInt(64));
+                }
+                // some command files end their lines the Windows way
+                text.append(i % 3 == 0 ? "\r\n" : "\n");
+            }
+            try {
+                if (file == null) {
+                    file = File.createTempFile("lines", ".txt");
+                    file.deleteOnExit();
+                }
+                Files.write(file.toPath(), text.toString().getBytes(
+                    StandardCharsets.US_ASCII));
+            }
+            catch (IOException e) {
+                throw new IllegalStateException("Cannot write " + file, e);
+            }
+        }
+
+
+        @Override
+        public int run() {
+            long[] chars = { 0 };
+            try {
+                if (mapped) {
+                    MappedLineReader.forEachLine(file, line -> chars[0] += line
+                        .length());
+                }
+                else {
+                    try (Scanner scanner = new Scanner(file)) {
+                        while (scanner.hasNextLine()) {
+                            String line = scanner.nextLine().trim();
+                            if (!line.isEmpty()) {
+                                chars[0] += line.length();
+                            }
+                        }
+                    }
+                }
+            }
+            catch (IOException e) {
+                throw new IllegalStateException("Cannot read " + file, e);
+            }
+            return (int)chars[0];
+        }
+    }
+}
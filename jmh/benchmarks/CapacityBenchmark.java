@@ -0,0 +1,71 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Times PRQuadTree searches at several leaf capacities, the measurement
+ * behind LeafNode.DEFAULT_CAPACITY: region search, name search and lookup
+ * by location. Name search goes through the tree's name index, so it
+ * shows what the capacity costs a lookup that never walks the tree.
+ *
+ * @author kinjalpandey, architg03
+ * @version 02/28/2024
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CapacityBenchmark {
+
+    /**
+     * The search.
+     */
+    @Param({ "prquadtree.regionSearch", "prquadtree.searchByName",
+        "prquadtree.searchByCoordinates" })
+    public String workload;
+
+    /**
+     * The most points a leaf holds before it splits.
+     */
+    @Param({ "1", "2", "3", "4", "8", "16" })
+    public int leafCapacity;
+
+    /**
+     * The number of points in the tree.
+     */
+    @Param({ "2000", "100000" })
+    public int size;
+
+    private Workload target;
+
+    /**
+     * Builds the tree.
+     */
+    @Setup
+    public void setUp() {
+        target = Workload.create(workload, leafCapacity);
+        target.setUp(size);
+    }
+
+
+    /**
+     * @return what the search returned
+     */
+    @Benchmark
+    public int search() {
+        return target.run();
+    }
+}
@@ -0,0 +1,65 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Times whole command files end to end: a generated file of inserts
+ * followed by a mix of searches, region searches, removes and inserts, run
+ * by a fresh processor with its output thrown away. The rectangle and
+ * point files are each run line by line and through the CommandPipeline.
+ *
+ * @author kinjalpandey, architg03
+ * @version 02/28/2024
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CommandBenchmark {
+
+    /**
+     * The kind of file and how it is run.
+     */
+    @Param({ "commands.rectangles", "commands.rectangles.pipeline",
+        "commands.points", "commands.points.pipeline" })
+    public String workload;
+
+    /**
+     * The number of commands in the file.
+     */
+    @Param({ "10000", "100000" })
+    public int size;
+
+    private Workload target;
+
+    /**
+     * Writes the command file.
+     */
+    @Setup
+    public void setUp() {
+        target = Workload.create(workload);
+        target.setUp(size);
+    }
+
+
+    /**
+     * @return a count that depends on the commands run
+     */
+    @Benchmark
+    public int process() {
+        return target.run();
+    }
+}
@@ -0,0 +1,99 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Times how throughput scales with the number of threads for the
+ * ConcurrentSkipList, next to a SkipList every thread has to share through
+ * a lock. All the threads of a run work on one list; they search, and in
+ * the mixed workloads one operation in ten removes a name and puts it
+ * back. Each thread count is its own benchmark method, so one run gives
+ * the whole scaling curve. The gains need as many cores as threads.
+ *
+ * @author kinjalpandey, architg03
+ * @version 02/28/2024
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConcurrentBenchmark {
+
+    /**
+     * The list and the mix of operations.
+     */
+    @Param({ "skiplist.concurrent.reads", "skiplist.locked.reads",
+        "skiplist.concurrent.mixed", "skiplist.locked.mixed" })
+    public String workload;
+
+    /**
+     * The number of names in the list.
+     */
+    @Param({ "100000" })
+    public int size;
+
+    private Workload target;
+
+    /**
+     * Fills the list the threads share.
+     */
+    @Setup
+    public void setUp() {
+        target = Workload.create(workload);
+        target.setUp(size);
+    }
+
+
+    /**
+     * @return what the operation returned
+     */
+    @Benchmark
+    @Threads(1)
+    public int threads1() {
+        return target.run();
+    }
+
+
+    /**
+     * @return what the operation returned
+     */
+    @Benchmark
+    @Threads(2)
+    public int threads2() {
+        return target.run();
+    }
+
+
+    /**
+     * @return what the operation returned
+     */
+    @Benchmark
+    @Threads(4)
+    public int threads4() {
+        return target.run();
+    }
+
+
+    /**
+     * @return what the operation returned
+     */
+    @Benchmark
+    @Threads(8)
+    public int threads8() {
+        return target.run();
+    }
+}
@@ -0,0 +1,78 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Times what the SkipList finger saves on streams of names that arrive in
+ * sorted order, the way command files tend to list them, next to the same
+ * names in random order: a whole cycle that inserts every name one at a
+ * time, searches for every name and removes them all again, and a single
+ * search for the next name of the stream in a full list.
+ *
+ * @author kinjalpandey, architg03
+ * @version 02/28/2024
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FingerBenchmark {
+
+    /**
+     * The order the names arrive in.
+     */
+    @Param({ "sorted", "random" })
+    public String stream;
+
+    /**
+     * The number of names.
+     */
+    @Param({ "200000" })
+    public int size;
+
+    private Workload cycle;
+    private Workload search;
+
+    /**
+     * Makes the streams and fills the list searched.
+     */
+    @Setup
+    public void setUp() {
+        cycle = Workload.create("skiplist.finger." + stream);
+        cycle.setUp(size);
+        search = Workload.create("skiplist.finger.search." + stream);
+        search.setUp(size);
+    }
+
+
+    /**
+     * @return the number of names found
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public int cycle() {
+        return cycle.run();
+    }
+
+
+    /**
+     * @return the number of pairs found
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public int search() {
+        return search.run();
+    }
+}
@@ -0,0 +1,74 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Times SkipList lookups on three shapes of String keys, through the packed
+ * key prefixes in the nodes and through compareTo on every step, the way
+ * the list compared keys before it had prefixes. The shapes are short base
+ * 36 names, names of random letters, and names that all start with the
+ * same eight characters like the rectangle database's ("rectangle" + n),
+ * where every prefix ties.
+ *
+ * @author kinjalpandey, architg03
+ * @version 02/28/2024
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KeyPrefixBenchmark {
+
+    /**
+     * The shape of the names.
+     */
+    @Param({ "short", "random", "shared" })
+    public String keys;
+
+    /**
+     * prefix to compare packed prefixes first, compareTo to compare whole
+     * keys on every step.
+     */
+    @Param({ "prefix", "compareTo" })
+    public String path;
+
+    /**
+     * The number of names in the list.
+     */
+    @Param({ "200000" })
+    public int size;
+
+    private Workload target;
+
+    /**
+     * Fills the list.
+     */
+    @Setup
+    public void setUp() {
+        target = Workload.create("skiplist.keys." + keys + (path.equals(
+            "compareTo") ? ".compareTo" : ""));
+        target.setUp(size);
+    }
+
+
+    /**
+     * @return the rank of the name looked up
+     */
+    @Benchmark
+    public int lookup() {
+        return target.run();
+    }
+}
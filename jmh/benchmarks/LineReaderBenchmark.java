@@ -0,0 +1,65 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Times reading a whole command file line by line with the Scanner loop
+ * the main methods used to have and with the MappedLineReader. The file is
+ * generated in the temporary directory: inserts, searches, removes with
+ * extra spaces, blank lines, and a third of the lines ending in a carriage
+ * return too. Both readers trim every line and skip blank ones.
+ *
+ * @author kinjalpandey, architg03
+ * @version 02/28/2024
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LineReaderBenchmark {
+
+    /**
+     * The reader.
+     */
+    @Param({ "lines.scanner", "lines.mapped" })
+    public String workload;
+
+    /**
+     * The number of lines in the file.
+     */
+    @Param({ "1000000" })
+    public int size;
+
+    private Workload target;
+
+    /**
+     * Writes the file.
+     */
+    @Setup
+    public void setUp() {
+        target = Workload.create(workload);
+        target.setUp(size);
+    }
+
+
+    /**
+     * @return the number of characters read, less blanks at the line ends
+     */
+    @Benchmark
+    public int read() {
+        return target.run();
+    }
+}
@@ -0,0 +1,65 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Times operations that only read a structure: SkipList search, PRQuadTree
+ * region search and duplicate finding, and the intersections command of
+ * the rectangle Database. The structure is built once per trial and every
+ * call queries it again.
+ *
+ * @author kinjalpandey, architg03
+ * @version 02/28/2024
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QueryBenchmark {
+
+    /**
+     * The operation.
+     */
+    @Param({ "skiplist.search", "prquadtree.regionSearch",
+        "prquadtree.findDuplicates", "database.intersections" })
+    public String workload;
+
+    /**
+     * The number of entries in the structure.
+     */
+    @Param({ "1000", "100000" })
+    public int size;
+
+    private Workload target;
+
+    /**
+     * Builds the structure.
+     */
+    @Setup
+    public void setUp() {
+        target = Workload.create(workload);
+        target.setUp(size);
+    }
+
+
+    /**
+     * @return what the query returned
+     */
+    @Benchmark
+    public int query() {
+        return target.run();
+    }
+}
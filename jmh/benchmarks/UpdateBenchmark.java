@@ -0,0 +1,71 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Times operations that change a structure: SkipList insert and remove and
+ * PRQuadTree insert. Each iteration starts from a freshly built structure
+ * of the given size and runs a batch of BATCH operations, so the size stays
+ * close to the parameter instead of drifting as the benchmark runs; the
+ * score is the time for the whole batch.
+ *
+ * @author kinjalpandey, architg03
+ * @version 02/28/2024
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 20, batchSize = UpdateBenchmark.BATCH)
+@Measurement(iterations = 20, batchSize = UpdateBenchmark.BATCH)
+@Fork(1)
+public class UpdateBenchmark {
+
+    /**
+     * Operations per iteration; every size parameter is at least this.
+     */
+    public static final int BATCH = 1000;
+
+    /**
+     * The operation.
+     */
+    @Param({ "skiplist.insert", "skiplist.remove", "prquadtree.insert" })
+    public String workload;
+
+    /**
+     * The number of entries in the structure.
+     */
+    @Param({ "1000", "100000" })
+    public int size;
+
+    private Workload target;
+
+    /**
+     * Builds a fresh structure for the next batch.
+     */
+    @Setup(Level.Iteration)
+    public void setUp() {
+        target = Workload.create(workload);
+        target.setUp(size);
+    }
+
+
+    /**
+     * @return what the operation returned
+     */
+    @Benchmark
+    public int update() {
+        return target.run();
+    }
+}
@@ -0,0 +1,71 @@
+package benchmarks;
+
+/**
+ * One operation on one of the project's structures, ready to be timed.
+ * The project's classes are in the default package, which JMH benchmarks
+ * cannot be in and code in a package cannot name, so the benchmarks reach
+ * them through this interface. The implementations are made by the
+ * Workloads class in the default package, looked up by name once per
+ * trial; the timed calls are plain interface calls.
+ *
+ * @author kinjalpandey, architg03
+ * @version 02/28/2024
+ */
+public interface Workload {
+
+    /**
+     * Builds the structure with the given number of entries and prepares
+     * the inputs the operation will use.
+     *
+     * @param size
+     *            the number of entries, or of commands for a command file
+     */
+    void setUp(int size);
+
+
+    /**
+     * Runs the operation once on the next prepared input.
+     *
+     * @return a value that depends on the work done, for the blackhole
+     */
+    int run();
+
+
+    /**
+     * Makes a workload by name.
+     *
+     * @param name
+     *            the workload, such as skiplist.insert
+     * @return the workload, not yet set up
+     */
+    static Workload create(String name) {
+        try {
+            return (Workload)Class.forName("Workloads").getMethod("create",
+                String.class).invoke(null, name);
+        }
+        catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("No workload " + name, e);
+        }
+    }
+
+
+    /**
+     * Makes a workload by name whose quadtrees have the given leaf
+     * capacity.
+     *
+     * @param name
+     *            the workload, such as prquadtree.regionSearch
+     * @param leafCapacity
+     *            the most points a leaf holds before it splits
+     * @return the workload, not yet set up
+     */
+    static Workload create(String name, int leafCapacity) {
+        try {
+            return (Workload)Class.forName("Workloads").getMethod("create",
+                String.class, int.class).invoke(null, name, leafCapacity);
+        }
+        catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("No workload " + name, e);
+        }
+    }
+}